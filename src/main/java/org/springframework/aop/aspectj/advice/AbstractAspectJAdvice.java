@@ -1,7 +1,7 @@
 package org.springframework.aop.aspectj.advice;
 
 import java.io.Serializable;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,6 +18,8 @@ import org.springframework.aop.aspectj.pointcut.AspectJExpressionPointcut;
 import org.springframework.aop.aspectj.support.AspectJAdviceParameterNameDiscoverer;
 import org.springframework.aop.aspectj.support.ExposeInvocationInterceptor;
 import org.springframework.aop.framework.ProxyMethodInvocation;
+import org.springframework.aop.framework.invoker.DefaultMethodInvokerFactory;
+import org.springframework.aop.framework.invoker.MethodInvoker;
 import org.springframework.core.common.Nullable;
 import org.springframework.core.exception.AopInvocationException;
 import org.springframework.core.parametername.DefaultParameterNameDiscoverer;
@@ -86,11 +88,19 @@ public abstract class AbstractAspectJAdvice implements Advice, Serializable {
 
     private int joinPointStaticPartArgumentIndex = -1;
 
-    private boolean argumentsIntrospected = false;
-
+    // 参数名 -> 通知方法参数下标，只在计算绑定计划时使用
     @Nullable
     private Map<String, Integer> argumentBindings;
 
+    private String[] pointcutParameterNames = new String[0];
+
+    // 计算好的参数绑定计划，为null表示还没有计算
+    @Nullable
+    private volatile ArgumentBindingPlan bindingPlan;
+
+    @Nullable
+    private transient volatile MethodInvoker adviceInvoker;
+
     public AbstractAspectJAdvice(Method aspectJAdviceMethod, AspectJExpressionPointcut pointcut, AspectInstanceFactory aspectInstanceFactory) {
         Assert.notNull(aspectJAdviceMethod, "Advice method must not be null");
         this.parameterTypes = aspectJAdviceMethod.getParameterTypes();
@@ -147,8 +157,12 @@ public abstract class AbstractAspectJAdvice implements Advice, Serializable {
         return this.discoveredThrowingType;
     }
 
-    public final void calculateArgumentBindings() {
-        if (this.argumentsIntrospected || this.parameterTypes.length == 0) {
+    public final synchronized void calculateArgumentBindings() {
+        if (this.bindingPlan != null) {
+            return;
+        }
+        if (this.parameterTypes.length == 0) {
+            this.bindingPlan = ArgumentBindingPlan.NO_ARGUMENTS;
             return;
         }
 
@@ -164,7 +178,30 @@ public abstract class AbstractAspectJAdvice implements Advice, Serializable {
             bindArgumentsByName(numUnboundArgs);
         }
 
-        this.argumentsIntrospected = true;
+        this.bindingPlan = createBindingPlan();
+        this.argumentBindings = null;
+    }
+
+    private ArgumentBindingPlan createBindingPlan() {
+        int returningIndex = -1;
+        int throwingIndex = -1;
+        String[] pointcutParameterNames = this.pointcutParameterNames;
+        int[] pointcutParameterIndexes = new int[pointcutParameterNames.length];
+        if (!CollUtil.isEmpty(this.argumentBindings)) {
+            if (this.returningName != null) {
+                returningIndex = this.argumentBindings.get(this.returningName);
+            }
+            if (this.throwingName != null) {
+                throwingIndex = this.argumentBindings.get(this.throwingName);
+            }
+            // 按切点参数的顺序排列，与JoinPointMatch#getParameterBindings的顺序一致
+            for (int i = 0; i < pointcutParameterNames.length; i++) {
+                pointcutParameterIndexes[i] = this.argumentBindings.get(pointcutParameterNames[i]);
+            }
+        }
+        return new ArgumentBindingPlan(this.parameterTypes.length, this.joinPointArgumentIndex,
+            this.joinPointStaticPartArgumentIndex, returningIndex, throwingIndex, pointcutParameterNames,
+            pointcutParameterIndexes);
     }
 
     private boolean maybeBindJoinPoint(Class<?> candidateParameterType) {
@@ -293,6 +330,7 @@ public abstract class AbstractAspectJAdvice implements Advice, Serializable {
             index++;
         }
 
+        this.pointcutParameterNames = pointcutParameterNames;
         this.pointcut.setParameterNames(pointcutParameterNames);
         this.pointcut.setParameterTypes(pointcutParameterTypes);
     }
@@ -301,55 +339,28 @@ public abstract class AbstractAspectJAdvice implements Advice, Serializable {
         return false;
     }
 
-    protected Object[] argBinding(JoinPoint jp, @Nullable JoinPointMatch jpMatch,
-                                  @Nullable Object returnValue, @Nullable Throwable ex) {
-
-        calculateArgumentBindings();
-
-        // AMC start
-        Object[] adviceInvocationArgs = new Object[this.parameterTypes.length];
-        int numBound = 0;
-
-        if (this.joinPointArgumentIndex != -1) {
-            adviceInvocationArgs[this.joinPointArgumentIndex] = jp;
-            numBound++;
-        } else if (this.joinPointStaticPartArgumentIndex != -1) {
-            adviceInvocationArgs[this.joinPointStaticPartArgumentIndex] = jp.getStaticPart();
-            numBound++;
-        }
-
-        if (!CollUtil.isEmpty(this.argumentBindings)) {
-            // binding from pointcut match
-            if (jpMatch != null) {
-                PointcutParameter[] parameterBindings = jpMatch.getParameterBindings();
-                for (PointcutParameter parameter : parameterBindings) {
-                    String name = parameter.getName();
-                    Integer index = this.argumentBindings.get(name);
-                    adviceInvocationArgs[index] = parameter.getBinding();
-                    numBound++;
-                }
-            }
-            // binding from returning clause
-            if (this.returningName != null) {
-                Integer index = this.argumentBindings.get(this.returningName);
-                adviceInvocationArgs[index] = returnValue;
-                numBound++;
-            }
-            // binding from thrown exception
-            if (this.throwingName != null) {
-                Integer index = this.argumentBindings.get(this.throwingName);
-                adviceInvocationArgs[index] = ex;
-                numBound++;
-            }
+    private ArgumentBindingPlan obtainBindingPlan() {
+        ArgumentBindingPlan plan = this.bindingPlan;
+        if (plan == null) {
+            calculateArgumentBindings();
+            plan = this.bindingPlan;
         }
+        return plan;
+    }
 
-        if (numBound != this.parameterTypes.length) {
-            throw new IllegalStateException("Required to bind " + this.parameterTypes.length +
-                    " arguments, but only bound " + numBound + " (JoinPointMatch " +
-                    (jpMatch == null ? "was NOT" : "WAS") + " bound in invocation)");
-        }
+    /**
+     * 通知方法是否声明了JoinPoint、ProceedingJoinPoint或JoinPoint.StaticPart参数，没有声明时不需要创建JoinPoint
+     */
+    protected boolean isJoinPointBound() {
+        return obtainBindingPlan().isJoinPointBound();
+    }
 
-        return adviceInvocationArgs;
+    /**
+     * @param jp 通知方法没有声明JoinPoint参数时可以为null
+     */
+    protected Object[] argBinding(@Nullable JoinPoint jp, @Nullable JoinPointMatch jpMatch,
+                                  @Nullable Object returnValue, @Nullable Throwable ex) {
+        return obtainBindingPlan().bind(jp, jpMatch, returnValue, ex);
     }
 
 
@@ -357,32 +368,47 @@ public abstract class AbstractAspectJAdvice implements Advice, Serializable {
             @Nullable JoinPointMatch jpMatch, @Nullable Object returnValue, @Nullable Throwable ex)
             throws Throwable {
 
-        return invokeAdviceMethodWithGivenArgs(argBinding(getJoinPoint(), jpMatch, returnValue, ex));
+        JoinPoint jp = (isJoinPointBound() ? getJoinPoint() : null);
+        return invokeAdviceMethodWithGivenArgs(argBinding(jp, jpMatch, returnValue, ex));
     }
 
-    protected Object invokeAdviceMethod(JoinPoint jp, @Nullable JoinPointMatch jpMatch,
+    protected Object invokeAdviceMethod(@Nullable JoinPoint jp, @Nullable JoinPointMatch jpMatch,
                                         @Nullable Object returnValue, @Nullable Throwable t) throws Throwable {
 
         return invokeAdviceMethodWithGivenArgs(argBinding(jp, jpMatch, returnValue, t));
     }
 
     protected Object invokeAdviceMethodWithGivenArgs(Object[] args) throws Throwable {
-        Object[] actualArgs = args;
-        if (this.aspectJAdviceMethod.getParameterCount() == 0) {
-            actualArgs = null;
+        MethodInvoker invoker = this.adviceInvoker;
+        if (invoker == null) {
+            invoker = DefaultMethodInvokerFactory.getInstance().getInvoker(this.aspectJAdviceMethod);
+            this.adviceInvoker = invoker;
         }
         try {
-            this.aspectJAdviceMethod.setAccessible(true);
-            return this.aspectJAdviceMethod.invoke(this.aspectInstanceFactory.getAspectInstance(), actualArgs);
-        } catch (IllegalArgumentException ex) {
+            return invoker.invoke(this.aspectInstanceFactory.getAspectInstance(), args);
+        } catch (IllegalArgumentException | ClassCastException | WrongMethodTypeException ex) {
+            // 调用器直接抛出通知方法自身的异常，只有参数确实与通知方法不匹配时才包装
+            if (argumentsMatch(args)) {
+                throw ex;
+            }
             throw new AopInvocationException("Mismatch on arguments to advice method [" +
                     this.aspectJAdviceMethod + "]; pointcut expression [" +
                     this.pointcut.getPointcutExpression() + "]", ex);
-        } catch (InvocationTargetException ex) {
-            throw ex.getTargetException();
         }
     }
 
+    private boolean argumentsMatch(Object[] args) {
+        if (args.length != this.parameterTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (!ClassUtils.isAssignableValue(this.parameterTypes[i], args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Around通知需要重写此方法，返回ProceedingJoinPoint
      */
@@ -395,6 +421,10 @@ public abstract class AbstractAspectJAdvice implements Advice, Serializable {
      */
     @Nullable
     protected JoinPointMatch getJoinPointMatch() {
+        if (!obtainBindingPlan().isPointcutParameterBound()) {
+            // 没有需要绑定的切点参数，不需要查找JoinPointMatch
+            return null;
+        }
         MethodInvocation mi = ExposeInvocationInterceptor.currentInvocation();
         if (!(mi instanceof ProxyMethodInvocation)) {
             throw new IllegalStateException("MethodInvocation is not a Spring ProxyMethodInvocation: " + mi);
@@ -415,4 +445,103 @@ public abstract class AbstractAspectJAdvice implements Advice, Serializable {
         return getClass().getName() + ": advice method [" + this.aspectJAdviceMethod + "]; ";
     }
 
+
+    /**
+     * 不可变的参数绑定计划：JoinPoint、返回值、异常和切点参数在通知方法参数中的下标都是固定的，
+     * 每次调用只需要创建参数数组并按下标赋值
+     */
+    private static final class ArgumentBindingPlan implements Serializable {
+
+        static final ArgumentBindingPlan NO_ARGUMENTS =
+            new ArgumentBindingPlan(0, -1, -1, -1, -1, new String[0], new int[0]);
+
+        private static final Object[] EMPTY_ARGUMENTS = new Object[0];
+
+        private final int parameterCount;
+
+        private final int joinPointIndex;
+
+        private final int joinPointStaticPartIndex;
+
+        private final int returningIndex;
+
+        private final int throwingIndex;
+
+        private final String[] pointcutParameterNames;
+
+        private final int[] pointcutParameterIndexes;
+
+        private ArgumentBindingPlan(int parameterCount, int joinPointIndex, int joinPointStaticPartIndex,
+            int returningIndex, int throwingIndex, String[] pointcutParameterNames, int[] pointcutParameterIndexes) {
+            this.parameterCount = parameterCount;
+            this.joinPointIndex = joinPointIndex;
+            this.joinPointStaticPartIndex = joinPointStaticPartIndex;
+            this.returningIndex = returningIndex;
+            this.throwingIndex = throwingIndex;
+            this.pointcutParameterNames = pointcutParameterNames;
+            this.pointcutParameterIndexes = pointcutParameterIndexes;
+        }
+
+        boolean isJoinPointBound() {
+            return (this.joinPointIndex != -1 || this.joinPointStaticPartIndex != -1);
+        }
+
+        boolean isPointcutParameterBound() {
+            return this.pointcutParameterIndexes.length > 0;
+        }
+
+        Object[] bind(@Nullable JoinPoint jp, @Nullable JoinPointMatch jpMatch, @Nullable Object returnValue,
+            @Nullable Throwable ex) {
+            if (this.parameterCount == 0) {
+                return EMPTY_ARGUMENTS;
+            }
+            Object[] args = new Object[this.parameterCount];
+            int numBound = 0;
+            if (this.joinPointIndex != -1) {
+                args[this.joinPointIndex] = jp;
+                numBound++;
+            } else if (this.joinPointStaticPartIndex != -1) {
+                args[this.joinPointStaticPartIndex] = jp.getStaticPart();
+                numBound++;
+            }
+            if (this.pointcutParameterIndexes.length > 0 && jpMatch != null) {
+                PointcutParameter[] parameterBindings = jpMatch.getParameterBindings();
+                for (int i = 0; i < parameterBindings.length; i++) {
+                    args[indexOf(parameterBindings[i].getName(), i)] = parameterBindings[i].getBinding();
+                    numBound++;
+                }
+            }
+            if (this.returningIndex != -1) {
+                args[this.returningIndex] = returnValue;
+                numBound++;
+            }
+            if (this.throwingIndex != -1) {
+                args[this.throwingIndex] = ex;
+                numBound++;
+            }
+            if (numBound != this.parameterCount) {
+                throw new IllegalStateException("Required to bind " + this.parameterCount +
+                        " arguments, but only bound " + numBound + " (JoinPointMatch " +
+                        (jpMatch == null ? "was NOT" : "WAS") + " bound in invocation)");
+            }
+            return args;
+        }
+
+        /**
+         * 切点参数对应的通知方法参数下标。绑定顺序通常与切点参数顺序一致，不一致时按名称查找
+         */
+        private int indexOf(String name, int expectedPosition) {
+            if (expectedPosition < this.pointcutParameterNames.length &&
+                this.pointcutParameterNames[expectedPosition].equals(name)) {
+                return this.pointcutParameterIndexes[expectedPosition];
+            }
+            for (int i = 0; i < this.pointcutParameterNames.length; i++) {
+                if (this.pointcutParameterNames[i].equals(name)) {
+                    return this.pointcutParameterIndexes[i];
+                }
+            }
+            throw new IllegalStateException("Pointcut parameter '" + name + "' is not bound in advice arguments");
+        }
+    }
+
 }
@@ -3,15 +3,15 @@ package org.springframework.aop.aspectj.advice;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 
-import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.aspectj.aspect.AspectInstanceFactory;
 import org.springframework.aop.aspectj.pointcut.AspectJExpressionPointcut;
+import org.springframework.aop.framework.interceptor.PhasedInterceptor;
 import org.springframework.aop.support.advice.base.AfterAdvice;
 import org.springframework.core.common.Nullable;
 
 public class AspectJAfterAdvice extends AbstractAspectJAdvice
-		implements MethodInterceptor, AfterAdvice, Serializable {
+		implements PhasedInterceptor, AfterAdvice, Serializable {
 
 	public AspectJAfterAdvice(Method aspectJBeforeAdviceMethod,
 							  AspectJExpressionPointcut pointcut, AspectInstanceFactory aif) {
@@ -29,4 +29,14 @@ public class AspectJAfterAdvice extends AbstractAspectJAdvice
 		}
 	}
 
+	@Override
+	public void afterReturning(@Nullable Object retVal, MethodInvocation mi) throws Throwable {
+		invokeAdviceMethod(getJoinPointMatch(), null, null);
+	}
+
+	@Override
+	public void afterThrowing(Throwable ex, MethodInvocation mi) throws Throwable {
+		invokeAdviceMethod(getJoinPointMatch(), null, null);
+	}
+
 }
@@ -3,15 +3,15 @@ package org.springframework.aop.aspectj.advice;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 
-import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.aspectj.aspect.AspectInstanceFactory;
 import org.springframework.aop.aspectj.pointcut.AspectJExpressionPointcut;
+import org.springframework.aop.framework.interceptor.PhasedInterceptor;
 import org.springframework.aop.support.advice.base.AfterAdvice;
 import org.springframework.core.common.Nullable;
 
 public class AspectJAfterThrowingAdvice extends AbstractAspectJAdvice
-		implements MethodInterceptor, AfterAdvice, Serializable {
+		implements PhasedInterceptor, AfterAdvice, Serializable {
 
 	public AspectJAfterThrowingAdvice(Method aspectJBeforeAdviceMethod,
 									  AspectJExpressionPointcut pointcut, AspectInstanceFactory aif) {
@@ -30,13 +30,18 @@ public class AspectJAfterThrowingAdvice extends AbstractAspectJAdvice
 			return mi.proceed();
 		}
 		catch (Throwable ex) {
-			if (shouldInvokeOnThrowing(ex)) {
-				invokeAdviceMethod(getJoinPointMatch(), null, ex);
-			}
+			afterThrowing(ex, mi);
 			throw ex;
 		}
 	}
 
+	@Override
+	public void afterThrowing(Throwable ex, MethodInvocation mi) throws Throwable {
+		if (shouldInvokeOnThrowing(ex)) {
+			invokeAdviceMethod(getJoinPointMatch(), null, ex);
+		}
+	}
+
 
 	private boolean shouldInvokeOnThrowing(Throwable ex) {
 		return getDiscoveredThrowingType().isAssignableFrom(ex.getClass());
@@ -34,7 +34,8 @@ public class AspectJAroundAdvice extends AbstractAspectJAdvice
 			throw new IllegalStateException("MethodInvocation is not a Spring ProxyMethodInvocation: " + mi);
 		}
 		ProxyMethodInvocation pmi = (ProxyMethodInvocation) mi;
-		ProceedingJoinPoint pjp = lazyGetProceedingJoinPoint(pmi);
+		// 通知方法没有声明ProceedingJoinPoint参数时不创建
+		ProceedingJoinPoint pjp = (isJoinPointBound() ? lazyGetProceedingJoinPoint(pmi) : null);
 		JoinPointMatch jpm = getJoinPointMatch(pmi);
 		return invokeAdviceMethod(pjp, jpm, null, null);
 	}
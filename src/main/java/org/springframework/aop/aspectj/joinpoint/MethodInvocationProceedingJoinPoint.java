@@ -11,6 +11,7 @@ import org.aspectj.lang.reflect.SourceLocation;
 import org.aspectj.runtime.internal.AroundClosure;
 import org.springframework.aop.framework.ProxyMethodInvocation;
 import org.springframework.core.common.Nullable;
+import org.springframework.core.util.MethodCache;
 import org.springframework.core.parametername.DefaultParameterNameDiscoverer;
 import org.springframework.core.parametername.ParameterNameDiscoverer;
 
@@ -25,15 +26,30 @@ public class MethodInvocationProceedingJoinPoint implements ProceedingJoinPoint,
 
     private final ProxyMethodInvocation methodInvocation;
 
+    // 创建JoinPoint时（即Around通知被调用时）拦截器链执行到的位置，proceed从它之后的拦截器继续执行
+    private final int startInterceptorIndex;
+
+    private boolean proceeded;
+
     public MethodInvocationProceedingJoinPoint(ProxyMethodInvocation methodInvocation) {
         Assert.notNull(methodInvocation, "MethodInvocation must not be null");
         this.methodInvocation = methodInvocation;
+        this.startInterceptorIndex = methodInvocation.getCurrentInterceptorIndex();
     }
 
+    /**
+     * 第一次proceed直接在原调用上继续执行拦截器链，不克隆；再次proceed（比如重试）时，
+     * 原调用已经执行过后面的拦截器，克隆一个从{@link #startInterceptorIndex}之后继续执行的调用
+     */
     @Override
     @Nullable
     public Object proceed() throws Throwable {
-        return this.methodInvocation.invocableClone().proceed();
+        if (canProceedInPlace()) {
+            return this.methodInvocation.proceed();
+        }
+        Object[] arguments = this.methodInvocation.getArguments();
+        return this.methodInvocation.invocableClone(this.startInterceptorIndex,
+            arguments.length > 0 ? arguments.clone() : arguments).proceed();
     }
 
     @Override
@@ -46,18 +62,35 @@ public class MethodInvocationProceedingJoinPoint implements ProceedingJoinPoint,
                     "but was passed " + arguments.length + " arguments");
         }
         this.methodInvocation.setArguments(arguments);
-        return this.methodInvocation.invocableClone(arguments).proceed();
+        if (canProceedInPlace()) {
+            return this.methodInvocation.proceed();
+        }
+        return this.methodInvocation.invocableClone(this.startInterceptorIndex, arguments).proceed();
+    }
+
+    /**
+     * 是否第一次proceed，并且原调用还停在创建JoinPoint时的位置
+     */
+    private boolean canProceedInPlace() {
+        if (this.proceeded) {
+            return false;
+        }
+        this.proceeded = true;
+        return this.methodInvocation.getCurrentInterceptorIndex() == this.startInterceptorIndex;
     }
 
     // ----------- 下面一大堆不用看，就是为了实现接口方法：通过解析MethodInvocation得到Signature、args等 -------------
 
     private static final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
+    // Signature只与Method有关，按Method缓存在声明类上，字符串形式也只拼接一次
+    private static final MethodCache<MethodSignatureImpl> signatureCache = new MethodCache<>(MethodSignatureImpl::new);
+
     @Nullable
     private Object[] args;
 
     @Nullable
-    private Signature signature;
+    private MethodSignatureImpl signature;
 
     @Nullable
     private SourceLocation sourceLocation;
@@ -88,10 +121,16 @@ public class MethodInvocationProceedingJoinPoint implements ProceedingJoinPoint,
 
     @Override
     public Signature getSignature() {
-        if (this.signature == null) {
-            this.signature = new MethodSignatureImpl();
+        return obtainSignature();
+    }
+
+    private MethodSignatureImpl obtainSignature() {
+        MethodSignatureImpl signature = this.signature;
+        if (signature == null) {
+            signature = signatureCache.get(this.methodInvocation.getMethod());
+            this.signature = signature;
         }
-        return this.signature;
+        return signature;
     }
 
     @Override
@@ -120,58 +159,85 @@ public class MethodInvocationProceedingJoinPoint implements ProceedingJoinPoint,
 
     @Override
     public String toShortString() {
-        return "execution(" + getSignature().toShortString() + ")";
+        return obtainSignature().toShortExecutionString();
     }
 
     @Override
     public String toLongString() {
-        return "execution(" + getSignature().toLongString() + ")";
+        return obtainSignature().toLongExecutionString();
     }
 
     @Override
     public String toString() {
-        return "execution(" + getSignature().toString() + ")";
+        return obtainSignature().toExecutionString();
     }
 
 
-    private class MethodSignatureImpl implements MethodSignature {
+    /**
+     * 方法签名，按Method共享。各种字符串形式在第一次使用时拼接，之后直接返回；并发时可能重复拼接，结果相同
+     */
+    private static final class MethodSignatureImpl implements MethodSignature {
+
+        private final Method method;
 
         @Nullable
         private volatile String[] parameterNames;
 
+        @Nullable
+        private volatile String shortString;
+
+        @Nullable
+        private volatile String longString;
+
+        @Nullable
+        private volatile String string;
+
+        @Nullable
+        private volatile String shortExecutionString;
+
+        @Nullable
+        private volatile String longExecutionString;
+
+        @Nullable
+        private volatile String executionString;
+
+        private MethodSignatureImpl(Method method) {
+            this.method = method;
+        }
+
         @Override
         public String getName() {
-            return methodInvocation.getMethod().getName();
+            return this.method.getName();
         }
 
         @Override
         public int getModifiers() {
-            return methodInvocation.getMethod().getModifiers();
+            return this.method.getModifiers();
         }
 
         @Override
         public Class<?> getDeclaringType() {
-            return methodInvocation.getMethod().getDeclaringClass();
+            return this.method.getDeclaringClass();
         }
 
         @Override
         public String getDeclaringTypeName() {
-            return methodInvocation.getMethod().getDeclaringClass().getName();
+            return this.method.getDeclaringClass().getName();
         }
 
         @Override
         public Class<?> getReturnType() {
-            return methodInvocation.getMethod().getReturnType();
+            return this.method.getReturnType();
         }
 
         @Override
         public Method getMethod() {
-            return methodInvocation.getMethod();
+            return this.method;
         }
 
         @Override
         public Class<?>[] getParameterTypes() {
-            return methodInvocation.getMethod().getParameterTypes();
+            return this.method.getParameterTypes();
         }
 
         @Override
@@ -180,29 +246,75 @@ public class MethodInvocationProceedingJoinPoint implements ProceedingJoinPoint,
             String[] parameterNames = this.parameterNames;
             if (parameterNames == null) {
                 parameterNames = parameterNameDiscoverer.getParameterNames(getMethod());
+                if (parameterNames == null) {
+                    return null;
+                }
                 this.parameterNames = parameterNames;
             }
-            return parameterNames;
+            // 签名被多个JoinPoint共享，返回副本
+            return parameterNames.clone();
         }
 
         @Override
         public Class<?>[] getExceptionTypes() {
-            return methodInvocation.getMethod().getExceptionTypes();
+            return this.method.getExceptionTypes();
         }
 
         @Override
         public String toShortString() {
-            return toString(false, false, false, false);
+            String shortString = this.shortString;
+            if (shortString == null) {
+                shortString = toString(false, false, false, false);
+                this.shortString = shortString;
+            }
+            return shortString;
         }
 
         @Override
         public String toLongString() {
-            return toString(true, true, true, true);
+            String longString = this.longString;
+            if (longString == null) {
+                longString = toString(true, true, true, true);
+                this.longString = longString;
+            }
+            return longString;
         }
 
         @Override
         public String toString() {
-            return toString(false, true, false, true);
+            String string = this.string;
+            if (string == null) {
+                string = toString(false, true, false, true);
+                this.string = string;
+            }
+            return string;
+        }
+
+        String toShortExecutionString() {
+            String shortExecutionString = this.shortExecutionString;
+            if (shortExecutionString == null) {
+                shortExecutionString = "execution(" + toShortString() + ")";
+                this.shortExecutionString = shortExecutionString;
+            }
+            return shortExecutionString;
+        }
+
+        String toLongExecutionString() {
+            String longExecutionString = this.longExecutionString;
+            if (longExecutionString == null) {
+                longExecutionString = "execution(" + toLongString() + ")";
+                this.longExecutionString = longExecutionString;
+            }
+            return longExecutionString;
+        }
+
+        String toExecutionString() {
+            String executionString = this.executionString;
+            if (executionString == null) {
+                executionString = "execution(" + toString() + ")";
+                this.executionString = executionString;
+            }
+            return executionString;
         }
 
         private String toString(boolean includeModifier, boolean includeReturnTypeAndArgs,
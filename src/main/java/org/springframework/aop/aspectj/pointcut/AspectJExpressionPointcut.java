@@ -2,18 +2,25 @@ package org.springframework.aop.aspectj.pointcut;
 
 import java.lang.reflect.Method;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.weaver.tools.JoinPointMatch;
 import org.aspectj.weaver.tools.PointcutExpression;
-import org.aspectj.weaver.tools.PointcutParameter;
-import org.aspectj.weaver.tools.PointcutParser;
 import org.aspectj.weaver.tools.PointcutPrimitive;
+import org.aspectj.weaver.tools.ShadowMatch;
+import org.springframework.aop.aspectj.support.ExposeInvocationInterceptor;
 import org.springframework.aop.aspectj.support.ExpressionPointcut;
+import org.springframework.aop.framework.ProxyMethodInvocation;
 import org.springframework.aop.support.pointcut.ClassFilter;
 import org.springframework.aop.support.pointcut.MethodMatcher;
 import org.springframework.core.common.Nullable;
 import org.springframework.core.util.ClassUtils;
+import org.springframework.core.util.MethodCache;
 
+import cn.hutool.core.map.WeakConcurrentMap;
 import cn.hutool.core.text.CharSequenceUtil;
 
 /**
@@ -36,9 +43,26 @@ public class AspectJExpressionPointcut implements ExpressionPointcut, ClassFilte
         SUPPORTED_PRIMITIVES.add(PointcutPrimitive.AT_TARGET);
     }
 
-    private PointcutExpression pointcutExpression;
+    private static final Object NOT_COMPILABLE = new Object();
+
+    // 本地编译的结果，未尝试时为null，不在支持的子集内时为NOT_COMPILABLE。编译结果是幂等的，并发时重复编译不影响正确性
+    private volatile Object nativePointcut;
+
+    // 懒加载，保证只解析一次
+    private volatile PointcutExpression pointcutExpression;
+    // 匹配时持有的锁：解析表达式的PointcutParser被共享，其类型世界不是线程安全的。只在匹配结果缓存未命中时加锁，在pointcutExpression之前赋值
+    private Object matchLock;
     private String expression;
 
+    // 类（弱引用） -> AspectJ的类级别匹配结果。未命中时在matchLock上加锁后再匹配
+    private final Map<Class<?>, Boolean> classMatchCache = new WeakConcurrentMap<>();
+
+    // 方法 -> 匹配结果，挂在方法的声明类上，Method副本也能命中。未命中时在matchLock上加锁后再匹配
+    private final MethodCache<ShadowMatch> shadowMatchCache = new MethodCache<>(this::matchMethodExecution);
+    // 查找次数和实际匹配次数，命中次数由二者相减得到：其他线程先算出结果时，本次查找也算命中
+    private final LongAdder shadowMatchCacheLookups = new LongAdder();
+    private final LongAdder shadowMatchCacheMisses = new LongAdder();
+
     @Nullable
     private Class<?> pointcutDeclarationScope;
     private String[] pointcutParameterNames = new String[0];
@@ -58,52 +82,173 @@ public class AspectJExpressionPointcut implements ExpressionPointcut, ClassFilte
 
     @Override
     public boolean matches(Class<?> clazz) {
-        PointcutExpression pointcutExpression = obtainPointcutExpression();
-        return pointcutExpression.couldMatchJoinPointsInType(clazz);
+        NativePointcutCompiler.CompiledPointcut compiled = obtainNativePointcut();
+        if (compiled != null) {
+            return compiled.matches(clazz);
+        }
+        Boolean matches = this.classMatchCache.get(clazz);
+        if (matches == null) {
+            PointcutExpression pointcutExpression = obtainPointcutExpression();
+            synchronized (this.matchLock) {
+                matches = pointcutExpression.couldMatchJoinPointsInType(clazz);
+            }
+            this.classMatchCache.put(clazz, matches);
+        }
+        return matches;
     }
 
+    /**
+     * 静态匹配。需要运行时检查的表达式（比如args()、this()、target()），“可能匹配”也算匹配，
+     * 每次调用时再由{@link #matches(Method, Class, Object...)}确认
+     */
     @Override
     public boolean matches(Method method, Class<?> targetClass) {
+        NativePointcutCompiler.CompiledPointcut compiled = obtainNativePointcut();
+        if (compiled != null && !method.isBridge()) {
+            return compiled.matches(method, targetClass);
+        }
+        // 桥接方法的签名规则只有AspectJ清楚，和未能本地编译的表达式一样交给AspectJ
+        ShadowMatch shadowMatch = getShadowMatch(method);
+        return shadowMatch.alwaysMatches() || (shadowMatch.maybeMatches() && isRuntime());
+    }
+
+    @Override
+    public boolean isRuntime() {
+        return obtainNativePointcut() == null && obtainPointcutExpression().mayNeedDynamicTest();
+    }
+
+    /**
+     * 动态匹配：由AspectJ对静态匹配剩下的检查（instanceof、参数类型等）求值。
+     * 匹配成功时把JoinPointMatch以表达式为key放入当前MethodInvocation，供Advice绑定参数
+     */
+    @Override
+    public boolean matches(Method method, Class<?> targetClass, Object... args) {
+        ShadowMatch shadowMatch = getShadowMatch(method);
+        ProxyMethodInvocation pmi = null;
+        Object thisObject = null;
+        Object targetObject = null;
+        try {
+            MethodInvocation mi = ExposeInvocationInterceptor.currentInvocation();
+            if (mi instanceof ProxyMethodInvocation) {
+                pmi = (ProxyMethodInvocation) mi;
+                thisObject = pmi.getProxy();
+                targetObject = pmi.getThis();
+            }
+        } catch (IllegalStateException ex) {
+            // 拦截器链中没有ExposeInvocationInterceptor，只能根据参数匹配
+        }
+        JoinPointMatch joinPointMatch = shadowMatch.matchesJoinPoint(thisObject, targetObject, args);
+        if (pmi != null && joinPointMatch.matches()) {
+            pmi.setUserAttribute(getExpression(), joinPointMatch);
+        }
+        return joinPointMatch.matches();
+    }
+
+    private ShadowMatch getShadowMatch(Method method) {
+        this.shadowMatchCacheLookups.increment();
+        ShadowMatch shadowMatch = this.shadowMatchCache.getIfPresent(method);
+        return (shadowMatch != null ? shadowMatch : this.shadowMatchCache.get(method));
+    }
+
+    /**
+     * 由AspectJ匹配方法，每个方法只调用一次
+     */
+    private ShadowMatch matchMethodExecution(Method method) {
         PointcutExpression pointcutExpression = obtainPointcutExpression();
-        return pointcutExpression.matchesMethodExecution(method).alwaysMatches();
+        synchronized (this.matchLock) {
+            this.shadowMatchCacheMisses.increment();
+            return pointcutExpression.matchesMethodExecution(method);
+        }
+    }
+
+    /**
+     * 方法匹配结果缓存的命中次数
+     */
+    public long getShadowMatchCacheHits() {
+        // 先读未命中次数：查找次数只增不减，并发时结果不会偏小到负数
+        long misses = this.shadowMatchCacheMisses.sum();
+        return this.shadowMatchCacheLookups.sum() - misses;
+    }
+
+    /**
+     * 方法匹配结果缓存的未命中次数，即实际交给AspectJ匹配的次数
+     */
+    public long getShadowMatchCacheMisses() {
+        return this.shadowMatchCacheMisses.sum();
     }
 
     @Override
     public ClassFilter getClassFilter() {
-        obtainPointcutExpression();
+        if (obtainNativePointcut() == null) {
+            obtainPointcutExpression();
+        }
         return this;
     }
 
     @Override
     public MethodMatcher getMethodMatcher() {
-        obtainPointcutExpression();
+        if (obtainNativePointcut() == null) {
+            obtainPointcutExpression();
+        }
         return this;
     }
 
+    /**
+     * 表达式是否由本地编译器处理（不经过AspectJ匹配）
+     */
+    public boolean isCompiledNatively() {
+        return obtainNativePointcut() != null;
+    }
+
+    /**
+     * 尝试把表达式编译为本地的ClassFilter/MethodMatcher，带有参数绑定或不在支持的子集内时返回null
+     */
+    @Nullable
+    private NativePointcutCompiler.CompiledPointcut obtainNativePointcut() {
+        Object compiled = this.nativePointcut;
+        if (compiled == null) {
+            if (getExpression() == null) {
+                throw new IllegalStateException("Must set property 'expression' before attempting to match");
+            }
+            if (this.pointcutParameterNames.length == 0) {
+                compiled = NativePointcutCompiler.compile(replaceBooleanOperators(getExpression()),
+                    this.pointcutDeclarationScope, ClassUtils.getDefaultClassLoader());
+            }
+            if (compiled == null) {
+                compiled = NOT_COMPILABLE;
+            }
+            this.nativePointcut = compiled;
+        }
+        return (compiled != NOT_COMPILABLE ? (NativePointcutCompiler.CompiledPointcut) compiled : null);
+    }
+
     private PointcutExpression obtainPointcutExpression() {
         if (getExpression() == null) {
             throw new IllegalStateException("Must set property 'expression' before attempting to match");
         }
-        if (this.pointcutExpression == null) {
-            this.pointcutExpression = buildPointcutExpression(ClassUtils.getDefaultClassLoader());
-        }
-        return this.pointcutExpression;
-    }
-
-    private PointcutExpression buildPointcutExpression(@Nullable ClassLoader classLoader) {
-        PointcutParser parser = initializePointcutParser(classLoader);
-        PointcutParameter[] pointcutParameters = new PointcutParameter[this.pointcutParameterNames.length];
-        for (int i = 0; i < pointcutParameters.length; i++) {
-            pointcutParameters[i] =
-                parser.createPointcutParameter(this.pointcutParameterNames[i], this.pointcutParameterTypes[i]);
+        PointcutExpression pointcutExpression = this.pointcutExpression;
+        if (pointcutExpression == null) {
+            synchronized (this) {
+                pointcutExpression = this.pointcutExpression;
+                if (pointcutExpression == null) {
+                    PointcutExpressionRegistry.InternedExpression interned =
+                        buildPointcutExpression(ClassUtils.getDefaultClassLoader());
+                    this.matchLock = interned.getLock();
+                    pointcutExpression = interned.getExpression();
+                    this.pointcutExpression = pointcutExpression;
+                }
+            }
         }
-        return parser.parsePointcutExpression(replaceBooleanOperators(getExpression()), this.pointcutDeclarationScope,
-            pointcutParameters);
+        return pointcutExpression;
     }
 
-    private PointcutParser initializePointcutParser(@Nullable ClassLoader classLoader) {
-        return PointcutParser.getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(
-            SUPPORTED_PRIMITIVES, classLoader);
+    /**
+     * 从注册表获取解析后的表达式：相同的表达式在同一个ClassLoader下只解析一次，并共享PointcutParser
+     */
+    private PointcutExpressionRegistry.InternedExpression buildPointcutExpression(@Nullable ClassLoader classLoader) {
+        return PointcutExpressionRegistry.getInstance().getExpression(SUPPORTED_PRIMITIVES, classLoader,
+            replaceBooleanOperators(getExpression()), this.pointcutDeclarationScope, this.pointcutParameterNames,
+            this.pointcutParameterTypes);
     }
 
     private String replaceBooleanOperators(String pcExpr) {
@@ -0,0 +1,677 @@
+package org.springframework.aop.aspectj.pointcut;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.springframework.aop.support.pointcut.ClassFilter;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+import org.springframework.core.common.Nullable;
+import org.springframework.core.util.ClassUtils;
+
+/**
+ * 常见切点表达式的本地编译器：不经过AspectJ的类型世界，直接编译成基于预编译名称匹配器的ClassFilter/MethodMatcher。
+ * <p>
+ * 支持的子集：
+ * <ul>
+ *     <li>execution([修饰符] 返回类型 [声明类型.]方法名(参数) )，类型可以使用*、..和+，参数可以使用*和..</li>
+ *     <li>within(类型)</li>
+ *     <li>@annotation(注解的全限定名)</li>
+ *     <li>声明作用域中无参的命名切点引用，以及&amp;&amp;、||、!和括号组合</li>
+ * </ul>
+ * 其余情况（args、this、target、参数绑定、throws、泛型、数组、无法确定的非限定类名等）返回null，由AspectJ处理。
+ * 编译器生成的桥接方法在AspectJ中有特殊的签名规则，不在支持范围内，调用方需要交给AspectJ匹配
+ */
+final class NativePointcutCompiler {
+
+    private static final int MAX_REFERENCE_DEPTH = 16;
+
+    private final Class<?> declarationScope;
+
+    private final ClassLoader classLoader;
+
+    private final String expression;
+
+    private int pos;
+
+    private NativePointcutCompiler(String expression, @Nullable Class<?> declarationScope,
+        @Nullable ClassLoader classLoader) {
+        this.expression = expression;
+        this.declarationScope = declarationScope;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 编译表达式，不在支持的子集内时返回null
+     */
+    @Nullable
+    static CompiledPointcut compile(String expression, @Nullable Class<?> declarationScope,
+        @Nullable ClassLoader classLoader) {
+        try {
+            Node node = new NativePointcutCompiler(expression, declarationScope, classLoader).parse(0);
+            return new CompiledPointcut(node);
+        } catch (UnsupportedExpressionException ex) {
+            return null;
+        }
+    }
+
+    // ------------------------- 表达式解析 -------------------------
+
+    private Node parse(int depth) {
+        Node node = parseOr(depth);
+        skipWhitespace();
+        if (this.pos != this.expression.length()) {
+            throw new UnsupportedExpressionException();
+        }
+        return node;
+    }
+
+    private Node parseOr(int depth) {
+        Node node = parseAnd(depth);
+        while (consume("||")) {
+            node = new OrNode(node, parseAnd(depth));
+        }
+        return node;
+    }
+
+    private Node parseAnd(int depth) {
+        Node node = parseUnary(depth);
+        while (consume("&&")) {
+            node = new AndNode(node, parseUnary(depth));
+        }
+        return node;
+    }
+
+    private Node parseUnary(int depth) {
+        if (consume("!")) {
+            return new NotNode(parseUnary(depth));
+        }
+        if (consume("(")) {
+            Node node = parseOr(depth);
+            if (!consume(")")) {
+                throw new UnsupportedExpressionException();
+            }
+            return node;
+        }
+        return parsePrimitive(depth);
+    }
+
+    private Node parsePrimitive(int depth) {
+        skipWhitespace();
+        int start = this.pos;
+        while (this.pos < this.expression.length()) {
+            char c = this.expression.charAt(this.pos);
+            if (!Character.isJavaIdentifierPart(c) && c != '.' && c != '@') {
+                break;
+            }
+            this.pos++;
+        }
+        String name = this.expression.substring(start, this.pos);
+        if (name.isEmpty() || !consume("(")) {
+            throw new UnsupportedExpressionException();
+        }
+        String body = readBalanced().trim();
+        switch (name) {
+            case "execution":
+                return compileExecution(body);
+            case "within":
+                return new WithinNode(compileTypePattern(body));
+            case "@annotation":
+                return new AnnotationNode(resolveAnnotationType(body));
+            default:
+                if (!body.isEmpty()) {
+                    throw new UnsupportedExpressionException();
+                }
+                return compileReference(name, depth);
+        }
+    }
+
+    /**
+     * 读取到与已读取的左括号匹配的右括号为止，返回括号中的内容
+     */
+    private String readBalanced() {
+        int start = this.pos;
+        int level = 1;
+        while (this.pos < this.expression.length()) {
+            char c = this.expression.charAt(this.pos++);
+            if (c == '(') {
+                level++;
+            } else if (c == ')' && --level == 0) {
+                return this.expression.substring(start, this.pos - 1);
+            }
+        }
+        throw new UnsupportedExpressionException();
+    }
+
+    private boolean consume(String token) {
+        skipWhitespace();
+        if (this.expression.startsWith(token, this.pos)) {
+            this.pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (this.pos < this.expression.length() && Character.isWhitespace(this.expression.charAt(this.pos))) {
+            this.pos++;
+        }
+    }
+
+    /**
+     * 命名切点引用：在声明作用域（或限定的类）中查找无参的@Pointcut方法，编译它的表达式
+     */
+    private Node compileReference(String name, int depth) {
+        if (depth >= MAX_REFERENCE_DEPTH) {
+            throw new UnsupportedExpressionException();
+        }
+        Class<?> scope = this.declarationScope;
+        String methodName = name;
+        int lastDot = name.lastIndexOf('.');
+        if (lastDot != -1) {
+            scope = loadClass(name.substring(0, lastDot));
+            methodName = name.substring(lastDot + 1);
+        }
+        if (scope == null) {
+            throw new UnsupportedExpressionException();
+        }
+        Method pointcutMethod = findPointcutMethod(scope, methodName);
+        org.aspectj.lang.annotation.Pointcut pointcut = (pointcutMethod != null ?
+            pointcutMethod.getAnnotation(org.aspectj.lang.annotation.Pointcut.class) : null);
+        if (pointcut == null || !pointcut.argNames().isEmpty()) {
+            throw new UnsupportedExpressionException();
+        }
+        NativePointcutCompiler compiler = new NativePointcutCompiler(pointcut.value(), scope, this.classLoader);
+        return compiler.parse(depth + 1);
+    }
+
+    @Nullable
+    private static Method findPointcutMethod(Class<?> scope, String methodName) {
+        for (Class<?> clazz = scope; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.getName().equals(methodName) && method.getParameterCount() == 0) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Class<? extends Annotation> resolveAnnotationType(String name) {
+        if (name.indexOf('.') == -1 || !TypePattern.isExactName(name)) {
+            // 非限定名可能是绑定的参数名，交给AspectJ处理
+            throw new UnsupportedExpressionException();
+        }
+        Class<?> type = loadClass(name);
+        if (type == null || !type.isAnnotation()) {
+            throw new UnsupportedExpressionException();
+        }
+        @SuppressWarnings("unchecked")
+        Class<? extends Annotation> annotationType = (Class<? extends Annotation>) type;
+        return annotationType;
+    }
+
+    @Nullable
+    private Class<?> loadClass(String name) {
+        try {
+            return ClassUtils.forName(name, this.classLoader);
+        } catch (Throwable ex) {
+            return null;
+        }
+    }
+
+    // ------------------------- execution -------------------------
+
+    private Node compileExecution(String body) {
+        int paramsStart = body.indexOf('(');
+        if (paramsStart == -1 || !body.endsWith(")") || body.indexOf('(', paramsStart + 1) != -1) {
+            // 没有参数列表，或者带有throws子句、注解等
+            throw new UnsupportedExpressionException();
+        }
+        String[] tokens = body.substring(0, paramsStart).trim().split("\\s+");
+        if (tokens.length < 2) {
+            throw new UnsupportedExpressionException();
+        }
+        int requiredModifiers = 0;
+        int forbiddenModifiers = 0;
+        for (int i = 0; i < tokens.length - 2; i++) {
+            String token = tokens[i];
+            boolean negated = token.startsWith("!");
+            int modifier = toModifier(negated ? token.substring(1) : token);
+            if (negated) {
+                forbiddenModifiers |= modifier;
+            } else {
+                requiredModifiers |= modifier;
+            }
+        }
+        TypePattern returnType = compileTypePattern(tokens[tokens.length - 2]);
+        String qualifiedName = tokens[tokens.length - 1];
+        TypePattern declaringType = TypePattern.ANY;
+        String methodName = qualifiedName;
+        int lastDot = qualifiedName.lastIndexOf('.');
+        if (lastDot != -1) {
+            if (lastDot == 0 || qualifiedName.charAt(lastDot - 1) == '.') {
+                // 形如com.foo..*(..)，声明类型有歧义
+                throw new UnsupportedExpressionException();
+            }
+            declaringType = compileTypePattern(qualifiedName.substring(0, lastDot));
+            methodName = qualifiedName.substring(lastDot + 1);
+        }
+        NamePattern name = NamePattern.compile(methodName);
+        String params = body.substring(paramsStart + 1, body.length() - 1).trim();
+        List<TypePattern> parameterTypes = new ArrayList<>();
+        if (!params.isEmpty()) {
+            for (String param : params.split(",")) {
+                param = param.trim();
+                parameterTypes.add("..".equals(param) ? null : compileTypePattern(param));
+            }
+        }
+        return new ExecutionNode(requiredModifiers, forbiddenModifiers, returnType, declaringType, name,
+            parameterTypes.toArray(new TypePattern[0]));
+    }
+
+    private static int toModifier(String modifier) {
+        switch (modifier) {
+            case "public":
+                return Modifier.PUBLIC;
+            case "protected":
+                return Modifier.PROTECTED;
+            case "private":
+                return Modifier.PRIVATE;
+            case "static":
+                return Modifier.STATIC;
+            case "final":
+                return Modifier.FINAL;
+            case "synchronized":
+                return Modifier.SYNCHRONIZED;
+            default:
+                throw new UnsupportedExpressionException();
+        }
+    }
+
+    private TypePattern compileTypePattern(String pattern) {
+        boolean includeSubtypes = pattern.endsWith("+");
+        String namePattern = (includeSubtypes ? pattern.substring(0, pattern.length() - 1) : pattern);
+        if (namePattern.isEmpty() || namePattern.startsWith(".") || namePattern.endsWith(".") ||
+            !namePattern.matches("[\\w$.*]+")) {
+            // 数组、泛型、注解、!等交给AspectJ处理
+            throw new UnsupportedExpressionException();
+        }
+        if (namePattern.indexOf('.') == -1 && !"*".equals(namePattern)) {
+            if (!TypePattern.isExactName(namePattern)) {
+                throw new UnsupportedExpressionException();
+            }
+            // 非限定类名：只支持基本类型、void和java.lang中的类型
+            Class<?> primitive = ClassUtils.resolvePrimitiveClassName(namePattern);
+            if (primitive != null || "void".equals(namePattern)) {
+                return new TypePattern(NamePattern.compile(namePattern), includeSubtypes);
+            }
+            if (loadClass("java.lang." + namePattern) == null) {
+                throw new UnsupportedExpressionException();
+            }
+            namePattern = "java.lang." + namePattern;
+        }
+        return new TypePattern(NamePattern.compile(namePattern.replace('$', '.')), includeSubtypes);
+    }
+
+    // ------------------------- 匹配器 -------------------------
+
+    /**
+     * 编译后的切点
+     */
+    static final class CompiledPointcut implements ClassFilter, MethodMatcher {
+
+        private final Node node;
+
+        private CompiledPointcut(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean matches(Class<?> clazz) {
+            return this.node.couldMatch(clazz);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return this.node.matches(method);
+        }
+    }
+
+    private interface Node {
+
+        /**
+         * 类型中是否可能有匹配的方法，只在确定不匹配时返回false
+         */
+        boolean couldMatch(Class<?> clazz);
+
+        boolean matches(Method method);
+    }
+
+    private static final class AndNode implements Node {
+        private final Node left;
+        private final Node right;
+
+        private AndNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean couldMatch(Class<?> clazz) {
+            return this.left.couldMatch(clazz) && this.right.couldMatch(clazz);
+        }
+
+        @Override
+        public boolean matches(Method method) {
+            return this.left.matches(method) && this.right.matches(method);
+        }
+    }
+
+    private static final class OrNode implements Node {
+        private final Node left;
+        private final Node right;
+
+        private OrNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean couldMatch(Class<?> clazz) {
+            return this.left.couldMatch(clazz) || this.right.couldMatch(clazz);
+        }
+
+        @Override
+        public boolean matches(Method method) {
+            return this.left.matches(method) || this.right.matches(method);
+        }
+    }
+
+    private static final class NotNode implements Node {
+        private final Node node;
+
+        private NotNode(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean couldMatch(Class<?> clazz) {
+            return true;
+        }
+
+        @Override
+        public boolean matches(Method method) {
+            return !this.node.matches(method);
+        }
+    }
+
+    private static final class WithinNode implements Node {
+        private final TypePattern type;
+
+        private WithinNode(TypePattern type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean couldMatch(Class<?> clazz) {
+            // 继承来的方法声明在父类中，父类匹配时也可能有匹配的方法
+            for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+                if (matchesLexically(current)) {
+                    return true;
+                }
+            }
+            return clazz.isInterface() || this.type.matchesAnyInterface(clazz);
+        }
+
+        @Override
+        public boolean matches(Method method) {
+            return matchesLexically(method.getDeclaringClass());
+        }
+
+        /**
+         * within包括类型中（直接或间接）嵌套的类型
+         */
+        private boolean matchesLexically(Class<?> type) {
+            for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+                if (this.type.matches(current)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class AnnotationNode implements Node {
+        private final Class<? extends Annotation> annotationType;
+
+        private AnnotationNode(Class<? extends Annotation> annotationType) {
+            this.annotationType = annotationType;
+        }
+
+        @Override
+        public boolean couldMatch(Class<?> clazz) {
+            return true;
+        }
+
+        @Override
+        public boolean matches(Method method) {
+            return method.isAnnotationPresent(this.annotationType);
+        }
+    }
+
+    private static final class ExecutionNode implements Node {
+        private final int requiredModifiers;
+        private final int forbiddenModifiers;
+        private final TypePattern returnType;
+        private final TypePattern declaringType;
+        private final NamePattern name;
+        // null表示..
+        private final TypePattern[] parameterTypes;
+
+        private ExecutionNode(int requiredModifiers, int forbiddenModifiers, TypePattern returnType,
+            TypePattern declaringType, NamePattern name, TypePattern[] parameterTypes) {
+            this.requiredModifiers = requiredModifiers;
+            this.forbiddenModifiers = forbiddenModifiers;
+            this.returnType = returnType;
+            this.declaringType = declaringType;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+
+        /**
+         * 类型中方法的签名只会声明在类型本身或它的父类型中
+         */
+        @Override
+        public boolean couldMatch(Class<?> clazz) {
+            if (this.declaringType == TypePattern.ANY || clazz.isInterface() || this.declaringType.matches(clazz)) {
+                return true;
+            }
+            for (Class<?> type : getSupertypes(clazz)) {
+                if (this.declaringType.matches(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean matches(Method method) {
+            int modifiers = method.getModifiers();
+            return (modifiers & this.requiredModifiers) == this.requiredModifiers &&
+                (modifiers & this.forbiddenModifiers) == 0 &&
+                this.name.matches(method.getName()) &&
+                matchesParameters(method.getParameterTypes(), 0, 0) &&
+                matchesSignature(method);
+        }
+
+        private boolean matchesParameters(Class<?>[] types, int typeIndex, int patternIndex) {
+            if (patternIndex == this.parameterTypes.length) {
+                return typeIndex == types.length;
+            }
+            TypePattern pattern = this.parameterTypes[patternIndex];
+            if (pattern == null) {
+                // ..：匹配任意数量的参数
+                for (int i = typeIndex; i <= types.length; i++) {
+                    if (matchesParameters(types, i, patternIndex + 1)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return typeIndex < types.length && pattern.matches(types[typeIndex]) &&
+                matchesParameters(types, typeIndex + 1, patternIndex + 1);
+        }
+
+        /**
+         * 方法执行的签名包括所有声明了同一方法的父类型，任意一个签名的声明类型和返回类型同时匹配即可。
+         * 协变重写时父类型中声明的返回类型与方法本身不同
+         */
+        private boolean matchesSignature(Method method) {
+            Class<?> declaringClass = method.getDeclaringClass();
+            if (this.declaringType.matches(declaringClass) && this.returnType.matches(method.getReturnType())) {
+                return true;
+            }
+            for (Class<?> type : getSupertypes(declaringClass)) {
+                if (this.declaringType.matches(type)) {
+                    Method declared = findDeclaredMethod(type, method);
+                    if (declared != null && this.returnType.matches(declared.getReturnType())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Nullable
+        private static Method findDeclaredMethod(Class<?> type, Method method) {
+            try {
+                return type.getDeclaredMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException ex) {
+                return null;
+            }
+        }
+    }
+
+    private static Set<Class<?>> getSupertypes(Class<?> clazz) {
+        Set<Class<?>> supertypes = new LinkedHashSet<>();
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            if (current != clazz) {
+                supertypes.add(current);
+            }
+            supertypes.addAll(ClassUtils.getAllInterfacesForClassAsSet(current));
+        }
+        return supertypes;
+    }
+
+    /**
+     * 类型模式：名称模式，可选地包含子类型（+）
+     */
+    private static final class TypePattern {
+
+        static final TypePattern ANY = new TypePattern(NamePattern.ANY, false);
+
+        private final NamePattern name;
+
+        private final boolean includeSubtypes;
+
+        private TypePattern(NamePattern name, boolean includeSubtypes) {
+            this.name = name;
+            this.includeSubtypes = includeSubtypes;
+        }
+
+        static boolean isExactName(String pattern) {
+            return pattern.indexOf('*') == -1 && !pattern.contains("..");
+        }
+
+        boolean matches(Class<?> type) {
+            if (this == ANY || this.name.matches(typeName(type))) {
+                return true;
+            }
+            if (this.includeSubtypes) {
+                for (Class<?> supertype : getSupertypes(type)) {
+                    if (this.name.matches(typeName(supertype))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        boolean matchesAnyInterface(Class<?> type) {
+            for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                if (matches(ifc)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String typeName(Class<?> type) {
+            return type.getName().replace('$', '.');
+        }
+    }
+
+    /**
+     * 预编译的名称匹配器：精确名称直接比较，只有*时总是匹配，其余编译为正则表达式
+     */
+    private static final class NamePattern {
+
+        static final NamePattern ANY = new NamePattern(null, null);
+
+        @Nullable
+        private final String exactName;
+
+        @Nullable
+        private final Pattern pattern;
+
+        private NamePattern(@Nullable String exactName, @Nullable Pattern pattern) {
+            this.exactName = exactName;
+            this.pattern = pattern;
+        }
+
+        static NamePattern compile(String namePattern) {
+            if ("*".equals(namePattern)) {
+                return ANY;
+            }
+            if (TypePattern.isExactName(namePattern)) {
+                return new NamePattern(namePattern, null);
+            }
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < namePattern.length(); i++) {
+                char c = namePattern.charAt(i);
+                if (c == '.' && i + 1 < namePattern.length() && namePattern.charAt(i + 1) == '.') {
+                    // ..：任意层级的包
+                    regex.append("\\.(?:[^.]+\\.)*");
+                    i++;
+                } else if (c == '.') {
+                    regex.append("\\.");
+                } else if (c == '*') {
+                    regex.append("[^.]*");
+                } else {
+                    regex.append(c == '$' ? "\\$" : String.valueOf(c));
+                }
+            }
+            return new NamePattern(null, Pattern.compile(regex.toString()));
+        }
+
+        boolean matches(String name) {
+            if (this.exactName != null) {
+                return this.exactName.equals(name);
+            }
+            return (this.pattern == null || this.pattern.matcher(name).matches());
+        }
+    }
+
+    private static final class UnsupportedExpressionException extends RuntimeException {
+
+        private UnsupportedExpressionException() {
+            super(null, null, false, false);
+        }
+    }
+}
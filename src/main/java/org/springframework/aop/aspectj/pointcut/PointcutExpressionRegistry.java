@@ -0,0 +1,194 @@
+package org.springframework.aop.aspectj.pointcut;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.weaver.tools.PointcutExpression;
+import org.aspectj.weaver.tools.PointcutParameter;
+import org.aspectj.weaver.tools.PointcutParser;
+import org.aspectj.weaver.tools.PointcutPrimitive;
+import org.springframework.core.common.Nullable;
+
+import cn.hutool.core.map.WeakConcurrentMap;
+
+/**
+ * 已解析的AspectJ表达式注册表（单例）。
+ * <p>
+ * 每个ClassLoader共享一个PointcutParser（以及它背后的类型世界），同一个(规范化后的表达式, 声明作用域, 参数名, 参数类型)只解析一次，
+ * 多个Advice引用同一个命名切点时不再重复解析和解析类型。
+ * PointcutParser及其类型世界不是线程安全的，解析和静态匹配都需要在{@link InternedExpression#getLock()}上加锁。
+ * <p>
+ * 解析结果会强引用ClassLoader中的类，因此按ClassLoader（弱引用）分组并用软引用保存，ClassLoader不再使用时仍然可以被回收
+ */
+public final class PointcutExpressionRegistry {
+
+    private static final PointcutExpressionRegistry INSTANCE = new PointcutExpressionRegistry();
+
+    private final Map<ClassLoader, SoftReference<ParserScope>> scopes = new WeakConcurrentMap<>();
+
+    // 启动类加载器（null）不能作为弱引用的key，单独保存
+    private volatile SoftReference<ParserScope> bootstrapScope = new SoftReference<>(null);
+
+    private PointcutExpressionRegistry() {
+    }
+
+    public static PointcutExpressionRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取已解析的表达式，第一次请求时解析
+     *
+     * @param primitives     支持的切点原语，只在为ClassLoader创建PointcutParser时使用
+     * @param classLoader    解析类型使用的ClassLoader
+     * @param expression     切点表达式
+     * @param declarationScope 表达式中引用的命名切点所在的类
+     */
+    public InternedExpression getExpression(Set<PointcutPrimitive> primitives, @Nullable ClassLoader classLoader,
+        String expression, @Nullable Class<?> declarationScope, String[] parameterNames, Class<?>[] parameterTypes) {
+        ParserScope scope = obtainScope(primitives, classLoader);
+        ExpressionKey key = new ExpressionKey(normalize(expression), declarationScope, parameterNames, parameterTypes);
+        InternedExpression interned = scope.expressions.get(key);
+        if (interned == null) {
+            synchronized (scope.parser) {
+                interned = scope.expressions.get(key);
+                if (interned == null) {
+                    interned = new InternedExpression(scope.parse(key), scope.parser);
+                    scope.expressions.put(key, interned);
+                }
+            }
+        }
+        return interned;
+    }
+
+    private ParserScope obtainScope(Set<PointcutPrimitive> primitives, @Nullable ClassLoader classLoader) {
+        if (classLoader == null) {
+            ParserScope scope = this.bootstrapScope.get();
+            if (scope == null) {
+                synchronized (this) {
+                    scope = this.bootstrapScope.get();
+                    if (scope == null) {
+                        scope = new ParserScope(primitives, null);
+                        this.bootstrapScope = new SoftReference<>(scope);
+                    }
+                }
+            }
+            return scope;
+        }
+        SoftReference<ParserScope> reference = this.scopes.get(classLoader);
+        ParserScope scope = (reference != null ? reference.get() : null);
+        if (scope == null) {
+            synchronized (this) {
+                reference = this.scopes.get(classLoader);
+                scope = (reference != null ? reference.get() : null);
+                if (scope == null) {
+                    scope = new ParserScope(primitives, classLoader);
+                    this.scopes.put(classLoader, new SoftReference<>(scope));
+                }
+            }
+        }
+        return scope;
+    }
+
+    /**
+     * 规范化表达式：去掉首尾空白，连续的空白合并为一个空格
+     */
+    static String normalize(String expression) {
+        return expression.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * 解析后的表达式，以及匹配时需要持有的锁（所属的PointcutParser）
+     */
+    public static final class InternedExpression {
+
+        private final PointcutExpression expression;
+
+        private final Object lock;
+
+        private InternedExpression(PointcutExpression expression, Object lock) {
+            this.expression = expression;
+            this.lock = lock;
+        }
+
+        public PointcutExpression getExpression() {
+            return this.expression;
+        }
+
+        public Object getLock() {
+            return this.lock;
+        }
+    }
+
+    private static final class ParserScope {
+
+        private final PointcutParser parser;
+
+        private final Map<ExpressionKey, InternedExpression> expressions = new ConcurrentHashMap<>(64);
+
+        private ParserScope(Set<PointcutPrimitive> primitives, @Nullable ClassLoader classLoader) {
+            this.parser = PointcutParser
+                .getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(primitives,
+                    classLoader);
+        }
+
+        // 调用方需要持有parser的锁
+        private PointcutExpression parse(ExpressionKey key) {
+            PointcutParameter[] pointcutParameters = new PointcutParameter[key.parameterNames.length];
+            for (int i = 0; i < pointcutParameters.length; i++) {
+                pointcutParameters[i] =
+                    this.parser.createPointcutParameter(key.parameterNames[i], key.parameterTypes[i]);
+            }
+            return this.parser.parsePointcutExpression(key.expression, key.declarationScope, pointcutParameters);
+        }
+    }
+
+    private static final class ExpressionKey {
+
+        private final String expression;
+
+        @Nullable
+        private final Class<?> declarationScope;
+
+        private final String[] parameterNames;
+
+        private final Class<?>[] parameterTypes;
+
+        private final int hash;
+
+        private ExpressionKey(String expression, @Nullable Class<?> declarationScope, String[] parameterNames,
+            Class<?>[] parameterTypes) {
+            this.expression = expression;
+            this.declarationScope = declarationScope;
+            this.parameterNames = parameterNames.clone();
+            this.parameterTypes = parameterTypes.clone();
+            int hash = expression.hashCode();
+            hash = hash * 31 + (declarationScope != null ? declarationScope.hashCode() : 0);
+            hash = hash * 31 + Arrays.hashCode(this.parameterNames);
+            this.hash = hash * 31 + Arrays.hashCode(this.parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ExpressionKey)) {
+                return false;
+            }
+            ExpressionKey otherKey = (ExpressionKey) other;
+            return this.expression.equals(otherKey.expression) &&
+                this.declarationScope == otherKey.declarationScope &&
+                Arrays.equals(this.parameterNames, otherKey.parameterNames) &&
+                Arrays.equals(this.parameterTypes, otherKey.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
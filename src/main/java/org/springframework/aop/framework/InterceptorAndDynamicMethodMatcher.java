@@ -0,0 +1,34 @@
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+
+/**
+ * 拦截器链中的动态匹配项：拦截器 + 需要在调用时执行的MethodMatcher。
+ * 由{@link ReflectiveMethodInvocation#proceed()}根据实际参数判断是否执行拦截器，不匹配时跳过
+ */
+public final class InterceptorAndDynamicMethodMatcher {
+
+    private final MethodInterceptor interceptor;
+
+    private final MethodMatcher methodMatcher;
+
+    public InterceptorAndDynamicMethodMatcher(MethodInterceptor interceptor, MethodMatcher methodMatcher) {
+        this.interceptor = interceptor;
+        this.methodMatcher = methodMatcher;
+    }
+
+    public MethodInterceptor getInterceptor() {
+        return this.interceptor;
+    }
+
+    public MethodMatcher getMethodMatcher() {
+        return this.methodMatcher;
+    }
+
+    @Override
+    public String toString() {
+        return "InterceptorAndDynamicMethodMatcher: interceptor [" + this.interceptor + "]; methodMatcher [" +
+            this.methodMatcher + "]";
+    }
+}
@@ -17,6 +17,16 @@ public interface ProxyMethodInvocation extends MethodInvocation {
     MethodInvocation invocableClone();
     
     MethodInvocation invocableClone(Object... arguments);
+
+    /**
+     * 克隆当前调用，克隆出的调用从下标interceptorIndex之后的拦截器继续执行
+     */
+    MethodInvocation invocableClone(int interceptorIndex, Object... arguments);
+
+    /**
+     * 当前执行到的拦截器下标，还没有执行任何拦截器时为-1
+     */
+    int getCurrentInterceptorIndex();
     
     void setArguments(Object... arguments);
     
@@ -2,27 +2,45 @@ package org.springframework.aop.framework;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.interceptor.AfterReturningAdviceInterceptor;
+import org.springframework.aop.framework.interceptor.FusedAdviceInterceptor;
+import org.springframework.aop.framework.interceptor.MethodBeforeAdviceInterceptor;
+import org.springframework.aop.framework.interceptor.PhasedInterceptor;
+import org.springframework.aop.framework.interceptor.ThrowsAdviceInterceptor;
+import org.springframework.aop.framework.invoker.DefaultMethodInvokerFactory;
 import org.springframework.core.common.Nullable;
 
+import cn.hutool.core.thread.threadlocal.NamedThreadLocal;
+
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Method;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+/**
+ * 一次代理方法调用。
+ * <p>
+ * 稳态下尽量不分配对象：无参方法共享同一个空参数数组，userAttributes按需创建；
+ * 拦截器链满足{@link #isReusableChain(Object[])}时，同一线程内复用同一个实例（见{@link #proceedReusing}）。
+ */
 public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Cloneable {
 
+    private static final Object[] EMPTY_ARGUMENTS = new Object[0];
+
+    private static final ThreadLocal<ReflectiveMethodInvocation> reusableInvocation =
+        new NamedThreadLocal<>("Reusable AOP method invocation");
+
     // 代理对象
-    protected final Object proxy;
+    protected Object proxy;
     // 目标对象
-    protected final Object target;
+    protected Object target;
     // 目标对象Class
-    protected final Class<?> targetClass;
+    protected Class<?> targetClass;
 
     // 1.方法
-    protected final Method method;
+    protected Method method;
     // 2.方法拦截器（增强）
-    protected final List<Object> interceptorsAndDynamicMethodMatchers;
+    protected Object[] interceptorsAndDynamicMethodMatchers;
     // 3.方法参数
     protected Object[] arguments;
 
@@ -31,31 +49,195 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
     @Nullable
     private Map<String, Object> userAttributes;
 
+    // 是否正在执行调用，仅对线程内复用的实例有意义
+    private boolean inUse;
+
     public ReflectiveMethodInvocation(Object proxy, Object target, Method method, Object[] arguments,
-        Class<?> targetClass, List<Object> chain) {
+        Class<?> targetClass, Object[] chain) {
+        this.proxy = proxy;
+        this.target = target;
+        this.method = method;
+        this.targetClass = targetClass;
+        this.arguments = adaptArgumentsIfNecessary(method, arguments);
+        this.interceptorsAndDynamicMethodMatchers = chain;
+    }
+
+    /**
+     * 供线程内复用的实例使用，调用前必须先{@link #reset}
+     */
+    protected ReflectiveMethodInvocation() {
+        this.arguments = EMPTY_ARGUMENTS;
+        this.interceptorsAndDynamicMethodMatchers = EMPTY_ARGUMENTS;
+    }
+
+    /**
+     * 拦截器链中只有这几种适配器拦截器（或由它们合并成的{@link FusedAdviceInterceptor}）时，Advice只能拿到Method、参数和目标对象，
+     * 调用结束后没有任何地方会继续持有MethodInvocation，因此MethodInvocation可以在线程内复用
+     */
+    public static boolean isReusableChain(Object[] chain) {
+        for (Object interceptor : chain) {
+            if (!(interceptor instanceof MethodBeforeAdviceInterceptor)
+                && !(interceptor instanceof AfterReturningAdviceInterceptor)
+                && !(interceptor instanceof ThrowsAdviceInterceptor)
+                && !(interceptor instanceof FusedAdviceInterceptor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 用当前线程复用的MethodInvocation执行拦截器链，拦截器链必须满足{@link #isReusableChain(Object[])}。
+     * 同一线程内发生重入时（复用的实例正在使用），退回到新建实例
+     */
+    public static Object proceedReusing(Object proxy, Object target, Method method, Object[] arguments,
+        Class<?> targetClass, Object[] chain) throws Throwable {
+        ReflectiveMethodInvocation invocation = reusableInvocation.get();
+        if (invocation == null) {
+            invocation = new ReflectiveMethodInvocation();
+            reusableInvocation.set(invocation);
+        }
+        if (invocation.isInUse()) {
+            return new ReflectiveMethodInvocation(proxy, target, method, arguments, targetClass, chain).proceed();
+        }
+        invocation.reset(proxy, target, method, arguments, targetClass, chain);
+        try {
+            return invocation.proceed();
+        } finally {
+            invocation.release();
+        }
+    }
+
+    /**
+     * 复用当前实例，开始一次新的调用
+     */
+    protected void reset(Object proxy, Object target, Method method, Object[] arguments, Class<?> targetClass,
+        Object[] chain) {
         this.proxy = proxy;
         this.target = target;
         this.method = method;
         this.targetClass = targetClass;
         this.arguments = adaptArgumentsIfNecessary(method, arguments);
         this.interceptorsAndDynamicMethodMatchers = chain;
+        this.currentInterceptorIndex = -1;
+        this.userAttributes = null;
+        this.inUse = true;
+    }
+
+    /**
+     * 调用结束：释放对代理对象、目标对象和参数的引用，之后可以再次{@link #reset}
+     */
+    protected void release() {
+        this.proxy = null;
+        this.target = null;
+        this.arguments = EMPTY_ARGUMENTS;
+        this.interceptorsAndDynamicMethodMatchers = EMPTY_ARGUMENTS;
+        this.userAttributes = null;
+        this.inUse = false;
     }
 
+    protected boolean isInUse() {
+        return this.inUse;
+    }
+
+    /**
+     * 连续的{@link PhasedInterceptor}不逐个递归：循环执行它们的before，调用一次后续的拦截器链（或目标方法），
+     * 再从内到外执行after阶段。只有需要包裹proceed的拦截器才递归调用，栈深度只和这类拦截器的个数有关
+     */
     @Override
     public Object proceed() throws Throwable {
-        if (this.currentInterceptorIndex == this.interceptorsAndDynamicMethodMatchers.size() - 1) {
-            // 所有interceptor执行完毕，调用目标method
-            return invokeJoinPoint();
+        Object[] chain = this.interceptorsAndDynamicMethodMatchers;
+        int start = this.currentInterceptorIndex + 1;
+        // 第i位表示位置start + i的分阶段拦截器已经执行了before，回退时要执行它的after阶段
+        long entered = 0L;
+        Object retVal = null;
+        Throwable failure = null;
+        while (true) {
+            if (this.currentInterceptorIndex == chain.length - 1) {
+                // 所有interceptor执行完毕，调用目标method
+                if (entered == 0L) {
+                    return invokeJoinPoint();
+                }
+                try {
+                    retVal = invokeJoinPoint();
+                } catch (Throwable ex) {
+                    failure = ex;
+                }
+                break;
+            }
+            int index = ++this.currentInterceptorIndex;
+            MethodInterceptor interceptor = matchInterceptor(chain[index]);
+            if (interceptor == null) {
+                // 动态匹配不通过，跳过它继续执行拦截器链
+                continue;
+            }
+            if (interceptor instanceof PhasedInterceptor && index - start < Long.SIZE) {
+                try {
+                    ((PhasedInterceptor) interceptor).before(this);
+                } catch (Throwable ex) {
+                    failure = ex;
+                    break;
+                }
+                entered |= 1L << (index - start);
+            } else {
+                // 需要包裹proceed的拦截器（或超出本段容量的分阶段拦截器），递归执行剩余的拦截器链
+                if (entered == 0L) {
+                    return interceptor.invoke(this);
+                }
+                try {
+                    retVal = interceptor.invoke(this);
+                } catch (Throwable ex) {
+                    failure = ex;
+                }
+                break;
+            }
+        }
+        while (entered != 0L) {
+            int offset = Long.SIZE - 1 - Long.numberOfLeadingZeros(entered);
+            entered &= ~(1L << offset);
+            PhasedInterceptor interceptor = (PhasedInterceptor) unwrapInterceptor(chain[start + offset]);
+            try {
+                if (failure == null) {
+                    interceptor.afterReturning(retVal, this);
+                } else {
+                    interceptor.afterThrowing(failure, this);
+                }
+            } catch (Throwable ex) {
+                failure = ex;
+            }
+        }
+        if (failure != null) {
+            throw failure;
         }
+        return retVal;
+    }
 
-        // 逐个执行interceptor
-        Object interceptorOrInterceptionAdvice =
-            this.interceptorsAndDynamicMethodMatchers.get(++this.currentInterceptorIndex);
-        return ((MethodInterceptor)interceptorOrInterceptionAdvice).invoke(this);
+    /**
+     * 拦截器链中的元素对应的拦截器；动态匹配时根据实际参数判断，不匹配返回null
+     */
+    @Nullable
+    private MethodInterceptor matchInterceptor(Object interceptorOrInterceptionAdvice) {
+        if (interceptorOrInterceptionAdvice instanceof InterceptorAndDynamicMethodMatcher) {
+            InterceptorAndDynamicMethodMatcher dm = (InterceptorAndDynamicMethodMatcher) interceptorOrInterceptionAdvice;
+            Class<?> actualClass = (this.targetClass != null ? this.targetClass : this.method.getDeclaringClass());
+            return (dm.getMethodMatcher().matches(this.method, actualClass, this.arguments) ?
+                dm.getInterceptor() : null);
+        }
+        return (MethodInterceptor) interceptorOrInterceptionAdvice;
+    }
+
+    private static MethodInterceptor unwrapInterceptor(Object interceptorOrInterceptionAdvice) {
+        if (interceptorOrInterceptionAdvice instanceof InterceptorAndDynamicMethodMatcher) {
+            return ((InterceptorAndDynamicMethodMatcher) interceptorOrInterceptionAdvice).getInterceptor();
+        }
+        return (MethodInterceptor) interceptorOrInterceptionAdvice;
     }
 
+    /**
+     * 执行目标方法：通过为Method生成的调用器直接调用，避免Method#invoke的装箱和访问检查
+     */
     protected Object invokeJoinPoint() throws Throwable {
-        return method.invoke(this.target, this.arguments);
+        return DefaultMethodInvokerFactory.getInstance().getInvoker(this.method).invoke(this.target, this.arguments);
     }
 
     @Override
@@ -100,6 +282,7 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 
     @Override
     public MethodInvocation invocableClone(Object... arguments) {
+        // 提前创建userAttributes，让克隆出来的MethodInvocation与当前实例共享同一个Map
         if (this.userAttributes == null) {
             this.userAttributes = new HashMap<>();
         }
@@ -114,6 +297,18 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
         }
     }
 
+    @Override
+    public MethodInvocation invocableClone(int interceptorIndex, Object... arguments) {
+        ReflectiveMethodInvocation clone = (ReflectiveMethodInvocation) invocableClone(arguments);
+        clone.currentInterceptorIndex = interceptorIndex;
+        return clone;
+    }
+
+    @Override
+    public int getCurrentInterceptorIndex() {
+        return this.currentInterceptorIndex;
+    }
+
     @Override
     public void setUserAttribute(String key, Object value) {
         if (value != null) {
@@ -135,7 +330,8 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 
     private Object[] adaptArgumentsIfNecessary(Method method, Object[] arguments) {
         if (arguments == null) {
-            return new Object[0];
+            // 无参方法共享同一个空数组
+            return EMPTY_ARGUMENTS;
         }
         return arguments;
     }
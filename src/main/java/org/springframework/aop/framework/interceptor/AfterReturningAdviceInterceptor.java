@@ -1,6 +1,5 @@
 package org.springframework.aop.framework.interceptor;
 
-import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.support.advice.AfterReturningAdvice;
 import org.springframework.aop.support.advice.base.AfterAdvice;
@@ -8,7 +7,7 @@ import org.springframework.aop.support.advice.base.AfterAdvice;
 /**
  * 后置增强拦截器
  */
-public class AfterReturningAdviceInterceptor implements MethodInterceptor, AfterAdvice {
+public class AfterReturningAdviceInterceptor implements PhasedInterceptor, AfterAdvice {
 
     private AfterReturningAdvice advice;
 
@@ -21,7 +20,12 @@ public class AfterReturningAdviceInterceptor implements MethodInterceptor, After
     @Override
     public Object invoke(MethodInvocation mi) throws Throwable {
         Object retVal = mi.proceed();
-        this.advice.afterReturning(retVal, mi.getMethod(), mi.getArguments(), mi.getThis());
+        afterReturning(retVal, mi);
         return retVal;
     }
+
+    @Override
+    public void afterReturning(Object retVal, MethodInvocation mi) throws Throwable {
+        this.advice.afterReturning(retVal, mi.getMethod(), mi.getArguments(), mi.getThis());
+    }
 }
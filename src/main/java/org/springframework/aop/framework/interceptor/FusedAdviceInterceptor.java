@@ -0,0 +1,126 @@
+package org.springframework.aop.framework.interceptor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 融合拦截器：拦截器链中连续的前置、后置、异常增强拦截器合并成一个拦截器。
+ * <p>
+ * 先依次执行前置增强，只调用一次proceed，再从内到外执行后置增强或异常增强，无论合并了多少个增强都只占用一个拦截器的位置。
+ * 异常的传播与逐个嵌套执行完全一致：前置增强抛出异常时，只有它外层的异常增强会处理；
+ * 后置增强或异常处理方法抛出的异常替换原来的异常，继续交给外层的异常增强
+ */
+public final class FusedAdviceInterceptor implements PhasedInterceptor {
+
+    private static final byte BEFORE = 0;
+
+    private static final byte AFTER_RETURNING = 1;
+
+    private static final byte THROWS = 2;
+
+    // 按原拦截器链的顺序排列，第一个在最外层
+    private final MethodInterceptor[] interceptors;
+
+    private final byte[] kinds;
+
+    private FusedAdviceInterceptor(Object[] interceptors) {
+        this.interceptors = new MethodInterceptor[interceptors.length];
+        this.kinds = new byte[interceptors.length];
+        for (int i = 0; i < interceptors.length; i++) {
+            this.interceptors[i] = (MethodInterceptor) interceptors[i];
+            this.kinds[i] = kindOf(interceptors[i]);
+        }
+    }
+
+    /**
+     * 把拦截器链中连续两个以上的适配器拦截器合并成融合拦截器；没有可合并的拦截器时返回原数组
+     */
+    public static Object[] fuse(Object[] chain) {
+        List<Object> fused = null;
+        int start = 0;
+        while (start < chain.length) {
+            int end = start;
+            while (end < chain.length && kindOf(chain[end]) >= 0) {
+                end++;
+            }
+            if (end - start > 1) {
+                if (fused == null) {
+                    fused = new ArrayList<>(Arrays.asList(chain).subList(0, start));
+                }
+                fused.add(new FusedAdviceInterceptor(Arrays.copyOfRange(chain, start, end)));
+                start = end;
+            } else {
+                if (fused != null) {
+                    fused.add(chain[start]);
+                }
+                start++;
+            }
+        }
+        return (fused != null ? fused.toArray() : chain);
+    }
+
+    /**
+     * 只合并这三种适配器拦截器本身（不包括子类，子类可能重写了invoke），其余返回-1
+     */
+    private static byte kindOf(Object interceptor) {
+        Class<?> type = interceptor.getClass();
+        if (type == MethodBeforeAdviceInterceptor.class) {
+            return BEFORE;
+        } else if (type == AfterReturningAdviceInterceptor.class) {
+            return AFTER_RETURNING;
+        } else if (type == ThrowsAdviceInterceptor.class) {
+            return THROWS;
+        }
+        return -1;
+    }
+
+    @Override
+    public void before(MethodInvocation mi) throws Throwable {
+        for (int i = 0; i < this.interceptors.length; i++) {
+            if (this.kinds[i] == BEFORE) {
+                try {
+                    ((MethodBeforeAdviceInterceptor) this.interceptors[i]).before(mi);
+                } catch (Throwable ex) {
+                    // 只有已经进入的拦截器需要回退
+                    unwind(i, null, ex, mi);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void afterReturning(Object retVal, MethodInvocation mi) throws Throwable {
+        unwind(this.interceptors.length, retVal, null, mi);
+    }
+
+    @Override
+    public void afterThrowing(Throwable ex, MethodInvocation mi) throws Throwable {
+        unwind(this.interceptors.length, null, ex, mi);
+    }
+
+    /**
+     * 从内到外执行前entered个拦截器的after阶段；最终仍有异常时抛出
+     */
+    private void unwind(int entered, Object retVal, Throwable failure, MethodInvocation mi) throws Throwable {
+        for (int i = entered - 1; i >= 0; i--) {
+            try {
+                if (failure == null) {
+                    if (this.kinds[i] == AFTER_RETURNING) {
+                        ((AfterReturningAdviceInterceptor) this.interceptors[i]).afterReturning(retVal, mi);
+                    }
+                } else if (this.kinds[i] == THROWS) {
+                    ((ThrowsAdviceInterceptor) this.interceptors[i]).afterThrowing(failure, mi);
+                }
+            } catch (Throwable ex) {
+                failure = ex;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
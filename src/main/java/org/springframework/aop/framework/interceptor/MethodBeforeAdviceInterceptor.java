@@ -1,6 +1,5 @@
 package org.springframework.aop.framework.interceptor;
 
-import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.support.advice.MethodBeforeAdvice;
 import org.springframework.aop.support.advice.base.BeforeAdvice;
@@ -11,7 +10,7 @@ import java.lang.reflect.Method;
  * 前置增强拦截器
  */
 
-public class MethodBeforeAdviceInterceptor implements MethodInterceptor, BeforeAdvice {
+public class MethodBeforeAdviceInterceptor implements PhasedInterceptor, BeforeAdvice {
 
     private MethodBeforeAdvice advice;
 
@@ -27,7 +26,12 @@ public class MethodBeforeAdviceInterceptor implements MethodInterceptor, BeforeA
 
     @Override
     public Object invoke(MethodInvocation mi) throws Throwable {
-        this.advice.before(mi.getMethod(), mi.getArguments(), mi.getThis());
+        before(mi);
         return mi.proceed();
     }
+
+    @Override
+    public void before(MethodInvocation mi) throws Throwable {
+        this.advice.before(mi.getMethod(), mi.getArguments(), mi.getThis());
+    }
 }
@@ -0,0 +1,46 @@
+package org.springframework.aop.framework.interceptor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.common.Nullable;
+
+/**
+ * 分阶段的拦截器：只在后续拦截器链执行前后做事情，不包裹proceed，也不替换返回值。
+ * <p>
+ * ReflectiveMethodInvocation遇到连续的分阶段拦截器时，循环执行它们的before，只调用一次后续的拦截器链，
+ * 再从内到外执行afterReturning或afterThrowing，不再逐个递归。{@link #invoke}与依次执行三个阶段的效果一致
+ */
+public interface PhasedInterceptor extends MethodInterceptor {
+
+    /**
+     * 执行后续拦截器链之前调用；抛出异常时后续拦截器链和本拦截器的after阶段都不再执行
+     */
+    default void before(MethodInvocation mi) throws Throwable {
+    }
+
+    /**
+     * 后续拦截器链正常返回后调用；抛出的异常交给外层拦截器
+     */
+    default void afterReturning(@Nullable Object retVal, MethodInvocation mi) throws Throwable {
+    }
+
+    /**
+     * 后续拦截器链抛出异常后调用；正常返回时原来的异常继续传播，抛出的异常替换原来的异常
+     */
+    default void afterThrowing(Throwable ex, MethodInvocation mi) throws Throwable {
+    }
+
+    @Override
+    default Object invoke(MethodInvocation mi) throws Throwable {
+        before(mi);
+        Object retVal;
+        try {
+            retVal = mi.proceed();
+        } catch (Throwable ex) {
+            afterThrowing(ex, mi);
+            throw ex;
+        }
+        afterReturning(retVal, mi);
+        return retVal;
+    }
+}
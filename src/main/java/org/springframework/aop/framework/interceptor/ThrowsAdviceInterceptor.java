@@ -1,42 +1,57 @@
 package org.springframework.aop.framework.interceptor;
 
-import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.support.advice.ThrowsAdvice;
 import org.springframework.aop.support.advice.base.AfterAdvice;
-import org.springframework.core.common.Nullable;
 
-import java.lang.reflect.InvocationTargetException;
+import cn.hutool.core.map.WeakConcurrentMap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 异常增强拦截器
+ * <p>
+ * 同一个Advice类的afterThrowing方法只扫描一次，所有该类的拦截器共享扫描结果，以及"异常类 -> 处理方法"的解析结果（包括没有处理方法的结果）。
+ * 每个拦截器持有绑定到自己Advice实例的MethodHandle，处理异常时不再反射调用，也不分配参数数组
  */
-public class ThrowsAdviceInterceptor implements MethodInterceptor, AfterAdvice {
+public class ThrowsAdviceInterceptor implements PhasedInterceptor, AfterAdvice {
 
     private static final String AFTER_THROWING = "afterThrowing";
 
-    private final Object throwsAdvice;
+    // Advice类 -> afterThrowing方法的扫描结果。结果引用了Advice类的Method，挂在类上，随类和ClassLoader一起回收
+    private static final ClassValue<HandlerMethods> handlerMethodsCache = new ClassValue<HandlerMethods>() {
+        @Override
+        protected HandlerMethods computeValue(Class<?> type) {
+            return new HandlerMethods(type);
+        }
+    };
+
+    private static final MethodType SHORT_HANDLER_TYPE = MethodType.methodType(void.class, Throwable.class);
+
+    private static final MethodType FULL_HANDLER_TYPE =
+        MethodType.methodType(void.class, Method.class, Object[].class, Object.class, Throwable.class);
 
-    private final Map<Class<?>, Method> exceptionHandlerMap = new HashMap<>();
+    private final HandlerMethods handlerMethods;
+
+    // 下标与handlerMethods.methods一致，已绑定到throwsAdvice
+    private final MethodHandle[] boundHandlers;
 
     public ThrowsAdviceInterceptor(Object advice) {
-        this.throwsAdvice = advice;
-        Method[] methods = throwsAdvice.getClass().getMethods();
-        for (Method method : methods) {
-            if (method.getName().equals(AFTER_THROWING)
-                && (method.getParameterCount() == 1 || method.getParameterCount() == 4)) {
-                Class<?> throwableParam = method.getParameterTypes()[method.getParameterCount() - 1];
-                if (Throwable.class.isAssignableFrom(throwableParam)) {
-                    this.exceptionHandlerMap.put(throwableParam, method);
-                }
-            }
-        }
-        if (this.exceptionHandlerMap.isEmpty()) {
+        this.handlerMethods = handlerMethodsCache.get(advice.getClass());
+        if (this.handlerMethods.methods.length == 0) {
             throw new IllegalArgumentException(
-                "At least one handler method must be found in class [" + throwsAdvice.getClass() + "]");
+                "At least one handler method must be found in class [" + advice.getClass() + "]");
+        }
+        this.boundHandlers = new MethodHandle[this.handlerMethods.handles.length];
+        for (int i = 0; i < this.boundHandlers.length; i++) {
+            this.boundHandlers[i] = this.handlerMethods.handles[i].bindTo(advice);
         }
     }
 
@@ -45,36 +60,98 @@ public class ThrowsAdviceInterceptor implements MethodInterceptor, AfterAdvice {
         try {
             return mi.proceed();
         } catch (Throwable ex) {
-            Method handlerMethod = getExceptionHandler(ex);
-            if (handlerMethod != null) {
-                invokeHandlerMethod(mi, ex, handlerMethod);
-            }
+            afterThrowing(ex, mi);
             throw ex;
         }
     }
 
-    private void invokeHandlerMethod(MethodInvocation mi, Throwable ex, Method method) throws Throwable {
-        Object[] handlerArgs;
-        if (method.getParameterCount() ==1){
-            handlerArgs = new Object[] {ex};
-        }else {
-            handlerArgs = new Object[] {null, mi.getMethod(), mi.getArguments(), mi.getThis()};
+    /**
+     * 如果有能处理该异常的afterThrowing方法，调用它。处理方法自身抛出的异常直接抛出
+     */
+    @Override
+    public void afterThrowing(Throwable ex, MethodInvocation mi) throws Throwable {
+        int index = this.handlerMethods.resolve(ex.getClass());
+        if (index == HandlerMethods.NO_HANDLER) {
+            return;
         }
-        try {
-            method.invoke(this.throwsAdvice, handlerArgs);
-        } catch (InvocationTargetException targetEx) {
-            throw targetEx.getTargetException();
+        MethodHandle handler = this.boundHandlers[index];
+        if (this.handlerMethods.methods[index].getParameterCount() == 1) {
+            handler.invokeExact(ex);
+        } else {
+            handler.invokeExact(mi.getMethod(), mi.getArguments(), mi.getThis(), ex);
         }
     }
 
-    @Nullable
-    private Method getExceptionHandler(Throwable ex) {
-        Class<?> exceptionClass = ex.getClass();
-        Method handler = this.exceptionHandlerMap.get(exceptionClass);
-        while (handler == null && exceptionClass != Throwable.class) {
-            exceptionClass = exceptionClass.getSuperclass();
-            handler = this.exceptionHandlerMap.get(exceptionClass);
+    /**
+     * 一个Advice类的afterThrowing方法，以及按具体异常类缓存的解析结果
+     */
+    private static final class HandlerMethods {
+
+        static final int NO_HANDLER = -1;
+
+        private final Method[] methods;
+
+        // 未绑定的MethodHandle，第一个参数是Advice实例
+        private final MethodHandle[] handles;
+
+        // 每个afterThrowing方法处理的异常类型
+        private final Class<?>[] throwableTypes;
+
+        // 具体异常类（弱引用） -> 处理方法下标或NO_HANDLER
+        private final Map<Class<?>, Integer> resolved = new WeakConcurrentMap<>();
+
+        HandlerMethods(Class<?> adviceClass) {
+            List<Method> methods = new ArrayList<>();
+            for (Method method : adviceClass.getMethods()) {
+                if (method.getName().equals(AFTER_THROWING)
+                    && (method.getParameterCount() == 1 || method.getParameterCount() == 4)) {
+                    Class<?> throwableParam = method.getParameterTypes()[method.getParameterCount() - 1];
+                    if (Throwable.class.isAssignableFrom(throwableParam)) {
+                        methods.add(method);
+                    }
+                }
+            }
+            this.methods = methods.toArray(new Method[0]);
+            this.handles = new MethodHandle[this.methods.length];
+            this.throwableTypes = new Class<?>[this.methods.length];
+            for (int i = 0; i < this.methods.length; i++) {
+                Method method = this.methods[i];
+                this.throwableTypes[i] = method.getParameterTypes()[method.getParameterCount() - 1];
+                this.handles[i] = adaptHandle(method);
+            }
+        }
+
+        private static MethodHandle adaptHandle(Method method) {
+            try {
+                if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    method.setAccessible(true);
+                }
+                MethodType type = (method.getParameterCount() == 1 ? SHORT_HANDLER_TYPE : FULL_HANDLER_TYPE);
+                return MethodHandles.lookup().unreflect(method).asType(type.insertParameterTypes(0, Object.class));
+            } catch (IllegalAccessException | RuntimeException ex) {
+                throw new IllegalArgumentException("Cannot access handler method [" + method + "]", ex);
+            }
+        }
+
+        /**
+         * 沿着异常类的继承链查找处理方法，离异常类最近的优先
+         */
+        int resolve(Class<?> exceptionClass) {
+            Integer index = this.resolved.get(exceptionClass);
+            if (index == null) {
+                index = NO_HANDLER;
+                for (Class<?> current = exceptionClass; current != null && index == NO_HANDLER;
+                    current = current.getSuperclass()) {
+                    for (int i = 0; i < this.throwableTypes.length; i++) {
+                        if (this.throwableTypes[i] == current) {
+                            index = i;
+                            break;
+                        }
+                    }
+                }
+                this.resolved.put(exceptionClass, index);
+            }
+            return index;
         }
-        return handler;
     }
 }
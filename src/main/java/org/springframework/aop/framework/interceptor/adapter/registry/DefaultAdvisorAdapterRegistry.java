@@ -9,13 +9,20 @@ import org.springframework.aop.framework.interceptor.adapter.adapter.ThrowsAdvic
 import org.springframework.aop.support.advisor.Advisor;
 import org.springframework.core.exception.UnknownAdviceTypeException;
 
+import cn.hutool.core.map.WeakConcurrentMap;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 默认Advisor适配器，负责将Advice适配成MethodInterceptor - MethodBeforeAdvice --> MethodBeforeAdviceInterceptor -
  * AfterReturningAdvice --> AfterReturningAdviceInterceptor - ThrowsAdvice --> ThrowsAdviceInterceptor
+ * <p>
+ * 适配结果按Advisor缓存（弱引用），重复构建拦截器链时返回同一组拦截器。Advisor的Advice被替换，或者注册了新的适配器后，缓存自动失效。
+ * 读取路径不加锁：适配器列表写时复制，缓存项记录生成时的适配器版本
  */
 public class DefaultAdvisorAdapterRegistry implements AdvisorAdapterRegistry, Serializable {
 
@@ -26,7 +33,13 @@ public class DefaultAdvisorAdapterRegistry implements AdvisorAdapterRegistry, Se
         return INSTANCE;
     }
 
-    private final List<AdvisorAdapter> adapters = new ArrayList<>(3);
+    private final List<AdvisorAdapter> adapters = new CopyOnWriteArrayList<>();
+
+    // Advisor（弱引用） -> 适配结果
+    private final transient Map<Advisor, CachedInterceptors> interceptorCache = new WeakConcurrentMap<>();
+
+    // 每注册一个适配器加一，旧版本的缓存项不再使用
+    private volatile int adaptersVersion;
 
     private DefaultAdvisorAdapterRegistry() {
         registerAdvisorAdapter(new MethodBeforeAdviceAdapter());
@@ -35,15 +48,31 @@ public class DefaultAdvisorAdapterRegistry implements AdvisorAdapterRegistry, Se
     }
 
     @Override
-    public void registerAdvisorAdapter(AdvisorAdapter adapter) {
+    public synchronized void registerAdvisorAdapter(AdvisorAdapter adapter) {
         this.adapters.add(adapter);
-
+        this.adaptersVersion++;
+        this.interceptorCache.clear();
     }
 
+    /**
+     * 返回的数组是共享的，调用方不能修改
+     */
     @Override
     public MethodInterceptor[] getInterceptors(Advisor advisor) throws UnknownAdviceTypeException {
-        List<MethodInterceptor> interceptors = new ArrayList<>(3);
         Advice advice = advisor.getAdvice();
+        CachedInterceptors cached = this.interceptorCache.get(advisor);
+        if (cached != null && cached.advice == advice && cached.adaptersVersion == this.adaptersVersion) {
+            return cached.interceptors;
+        }
+        // 先读版本再适配，适配期间注册的适配器会让这次的结果在下次读取时失效
+        int version = this.adaptersVersion;
+        MethodInterceptor[] interceptors = adapt(advisor, advice);
+        this.interceptorCache.put(advisor, new CachedInterceptors(advice, interceptors, version));
+        return interceptors;
+    }
+
+    private MethodInterceptor[] adapt(Advisor advisor, Advice advice) throws UnknownAdviceTypeException {
+        List<MethodInterceptor> interceptors = new ArrayList<>(3);
         // 如果当前advice是MethodInterceptor类型，直接添加到interceptors中
         if (advice instanceof MethodInterceptor) {
             interceptors.add((MethodInterceptor)advice);
@@ -59,4 +88,26 @@ public class DefaultAdvisorAdapterRegistry implements AdvisorAdapterRegistry, Se
         }
         return interceptors.toArray(new MethodInterceptor[0]);
     }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+    /**
+     * 一个Advisor的适配结果。拦截器只引用Advice，不引用Advisor，不会阻止Advisor被回收
+     */
+    private static final class CachedInterceptors {
+
+        private final Advice advice;
+
+        private final MethodInterceptor[] interceptors;
+
+        private final int adaptersVersion;
+
+        private CachedInterceptors(Advice advice, MethodInterceptor[] interceptors, int adaptersVersion) {
+            this.advice = advice;
+            this.interceptors = interceptors;
+            this.adaptersVersion = adaptersVersion;
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package org.springframework.aop.framework.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.springframework.core.util.MethodCache;
+
+import cn.hutool.core.lang.Assert;
+
+/**
+ * 默认的MethodInvoker工厂：每个Method只创建一次调用器，缓存随目标类一起回收。
+ * - 优先使用MethodHandle：签名统一适配成(Object, Object[])Object，调用时不再做访问检查。
+ *   MethodHandle保存在普通字段中，不是常量调用点，JIT不会把目标方法内联进调用方
+ * - MethodHandle创建失败（比如模块不开放导致无法setAccessible）时，退回到反射调用
+ */
+public class DefaultMethodInvokerFactory implements MethodInvokerFactory {
+
+    // 单例模式
+    private static final DefaultMethodInvokerFactory INSTANCE = new DefaultMethodInvokerFactory();
+
+    public static DefaultMethodInvokerFactory getInstance() {
+        return INSTANCE;
+    }
+
+    private static final Object[] EMPTY_ARGUMENTS = new Object[0];
+
+    // 缓存挂在目标方法的声明类上，不会让被代理过的类和类加载器永远无法回收
+    private final MethodCache<MethodInvoker> invokerCache =
+        new MethodCache<>(DefaultMethodInvokerFactory::createInvoker);
+
+    private DefaultMethodInvokerFactory() {
+    }
+
+    @Override
+    public MethodInvoker getInvoker(Method method) {
+        return this.invokerCache.get(method);
+    }
+
+    private static MethodInvoker createInvoker(Method method) {
+        Assert.notNull(method, "Method must not be null");
+        try {
+            return new MethodHandleInvoker(method, adaptMethodHandle(method));
+        } catch (IllegalAccessException | RuntimeException ex) {
+            return new ReflectiveInvoker(method);
+        }
+    }
+
+    /**
+     * 把目标方法的MethodHandle适配成统一的(Object, Object[])Object形态
+     */
+    private static MethodHandle adaptMethodHandle(Method method) throws IllegalAccessException {
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            method.setAccessible(true);
+        }
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        int parameterCount = method.getParameterCount();
+        if (Modifier.isStatic(method.getModifiers())) {
+            // 静态方法没有接收者，补一个被忽略的target参数
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asType(MethodType.genericMethodType(parameterCount + 1))
+            .asSpreader(Object[].class, parameterCount);
+    }
+
+    private static final class MethodHandleInvoker implements MethodInvoker {
+
+        private final Method method;
+
+        private final MethodHandle methodHandle;
+
+        private MethodHandleInvoker(Method method, MethodHandle methodHandle) {
+            this.method = method;
+            this.methodHandle = methodHandle;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] arguments) throws Throwable {
+            Object[] actualArguments = (arguments != null ? arguments : EMPTY_ARGUMENTS);
+            return this.methodHandle.invokeExact(target, actualArguments);
+        }
+
+        @Override
+        public String toString() {
+            return "MethodHandleInvoker: " + this.method;
+        }
+    }
+
+    private static final class ReflectiveInvoker implements MethodInvoker {
+
+        private final Method method;
+
+        private ReflectiveInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] arguments) throws Throwable {
+            try {
+                return this.method.invoke(target, arguments);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "ReflectiveInvoker: " + this.method;
+        }
+    }
+}
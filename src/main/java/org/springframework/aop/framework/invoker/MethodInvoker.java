@@ -0,0 +1,11 @@
+package org.springframework.aop.framework.invoker;
+
+/**
+ * 目标方法调用器：对某一个具体Method的调用抽象。
+ * 与Method#invoke不同，实现类直接抛出目标方法自身的异常，而不是包装成InvocationTargetException。
+ */
+@FunctionalInterface
+public interface MethodInvoker {
+
+    Object invoke(Object target, Object[] arguments) throws Throwable;
+}
@@ -0,0 +1,14 @@
+package org.springframework.aop.framework.invoker;
+
+import java.lang.reflect.Method;
+
+/**
+ * 负责为目标Method创建（并缓存）MethodInvoker
+ */
+public interface MethodInvokerFactory {
+
+    /**
+     * 获取Method对应的调用器，同一个Method多次调用应返回同一个实例
+     */
+    MethodInvoker getInvoker(Method method);
+}
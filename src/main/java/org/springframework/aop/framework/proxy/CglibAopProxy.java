@@ -1,20 +1,61 @@
 package org.springframework.aop.framework.proxy;
 
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Dispatcher;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 import org.springframework.aop.framework.ReflectiveMethodInvocation;
+import org.springframework.aop.framework.interceptor.FusedAdviceInterceptor;
 import org.springframework.aop.framework.proxyfactory.AdvisedSupport;
+import org.springframework.core.common.Nullable;
+import org.springframework.core.exception.AopConfigException;
 
+import cn.hutool.core.map.WeakConcurrentMap;
+import cn.hutool.core.thread.threadlocal.NamedThreadLocal;
+
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * CGLib动态代理
+ * <p>
+ * 生成代理类的代价很高，所以按ClassLoader缓存代理类：同一个目标类型（父类+接口+Callback形态相同）只生成一次，
+ * 之后的代理对象通过{@link Factory#newInstance(Callback[])}创建，只剩一次对象分配。
+ * <p>
+ * 代理类中每个方法的分派方式由{@link ProxyCallbackFilter}在生成代理类时决定，没有增强的方法不再经过拦截器链查找。
  */
 public class CglibAopProxy implements AopProxy {
 
+    /**
+     * 代理类缓存：ClassLoader（弱引用） -> 代理类的key -> 代理类
+     */
+    private static final Map<ClassLoader, Map<ProxyClassKey, ProxyClassEntry>> proxyClassCache =
+        new WeakConcurrentMap<>();
+
+    // 回调下标：动态查找拦截器链
+    private static final int AOP_PROXY = 0;
+
+    // 回调下标：没有增强，直接调用目标对象
+    private static final int INVOKE_TARGET = 1;
+
+    // 回调下标：没有增强，由代理类通过Dispatcher直接调用目标对象（仅用于冻结的配置）
+    private static final int DISPATCH_TARGET = 2;
+
+    // 回调下标：固定拦截器链从这里开始，每个被增强的方法占一个
+    private static final int FIXED_CHAIN_OFFSET = 3;
+
+    private static final Object[] EMPTY_CHAIN = new Object[0];
+
     private final AdvisedSupport advised;
 
     public CglibAopProxy(AdvisedSupport advised) {
@@ -23,17 +64,371 @@ public class CglibAopProxy implements AopProxy {
 
     @Override
     public Object getProxy() {
-        // 创建CGLib动态代理
+        Object target = advised.getTargetSource().getTarget();
+        Class<?> superclass = target.getClass();
+        Class<?>[] interfaces = advised.getTargetSource().getTargetClass();
+
+        // 先读取变更次数再取路由：之后Advisor发生变化，回调会发现次数不一致而退回动态拦截
+        int adviceChangeCount = this.advised.getAdviceChangeCount();
+        // 方法路由只由Advisor列表和目标类型决定，Advisor相同的配置只计算一次，之后的代理对象直接复用
+        ProxyCallbackFilter callbackFilter = this.advised.getProxyMetadata(
+            new RoutesKey(superclass, interfaces, this.advised.isFrozen()),
+            key -> new ProxyCallbackFilter(this.advised, superclass, interfaces));
+        Callback[] callbacks = getCallbacks(target, adviceChangeCount, callbackFilter);
+
+        ClassLoader classLoader = superclass.getClassLoader();
+        if (classLoader == null) {
+            // 启动类加载器加载的类无法作为弱引用的key，不做缓存
+            return createProxyClass(superclass, interfaces, callbackFilter).newInstance(callbacks);
+        }
+        Map<ProxyClassKey, ProxyClassEntry> classCache =
+            proxyClassCache.computeIfAbsent(classLoader, loader -> new ConcurrentHashMap<>(16));
+        ProxyClassKey key = callbackFilter.getProxyClassKey();
+        ProxyClassEntry entry = classCache.get(key);
+        if (entry == null || entry.getProxyClass() == null) {
+            // 代理类只生成一次
+            entry = classCache.compute(key, (k, existing) -> (existing != null && existing.getProxyClass() != null)
+                ? existing : createProxyClass(superclass, interfaces, callbackFilter));
+        }
+        return entry.newInstance(callbacks);
+    }
+
+    /**
+     * 回调数组的布局需要与{@link ProxyCallbackFilter}返回的下标一一对应
+     */
+    private Callback[] getCallbacks(Object target, int adviceChangeCount, ProxyCallbackFilter callbackFilter) {
+        DynamicAdvisedInterceptor aopInterceptor = new DynamicAdvisedInterceptor(this.advised);
+        List<Method> fixedChainMethods = callbackFilter.getFixedChainMethods();
+        List<Object[]> fixedChains = callbackFilter.getFixedChains();
+        Callback[] callbacks = new Callback[FIXED_CHAIN_OFFSET + fixedChains.size()];
+        callbacks[AOP_PROXY] = aopInterceptor;
+        callbacks[INVOKE_TARGET] =
+            new StaticUnadvisedInterceptor(this.advised, adviceChangeCount, target, aopInterceptor);
+        callbacks[DISPATCH_TARGET] = new StaticDispatcher(target);
+        for (int i = 0; i < fixedChains.size(); i++) {
+            MethodChainTable.Entry entry = new MethodChainTable.Entry(fixedChainMethods.get(i), target.getClass(),
+                adviceChangeCount, fixedChains.get(i));
+            callbacks[FIXED_CHAIN_OFFSET + i] =
+                new FixedChainStaticTargetInterceptor(this.advised, target, entry, aopInterceptor);
+        }
+        return callbacks;
+    }
+
+    private static ProxyClassEntry createProxyClass(Class<?> superclass, Class<?>[] interfaces,
+        ProxyCallbackFilter callbackFilter) {
+        // 创建CGLib动态代理类（而不是代理对象），回调实例在创建代理对象时再传入
         Enhancer enhancer = new Enhancer();
-        enhancer.setSuperclass(advised.getTargetSource().getTarget().getClass());
-        enhancer.setInterfaces(advised.getTargetSource().getTargetClass());
-        enhancer.setCallback(new DynamicAdvisedInterceptor(advised));
-        return enhancer.create();
+        enhancer.setSuperclass(superclass);
+        enhancer.setInterfaces(interfaces);
+        enhancer.setCallbackTypes(callbackFilter.getCallbackTypes());
+        enhancer.setCallbackFilter(callbackFilter);
+        // 由上面的proxyClassCache负责缓存
+        enhancer.setUseCache(false);
+        return new ProxyClassEntry(enhancer.createClass());
+    }
+
+    /**
+     * 代理类的缓存key。只保存类名，避免强引用ClassLoader中的类导致ClassLoader无法回收
+     */
+    private static final class ProxyClassKey {
+
+        private final String superclassName;
+
+        private final String[] interfaceNames;
+
+        private final String[] callbackTypeNames;
+
+        // 每个方法对应的回调下标，决定了代理类中方法的分派方式
+        private final int[] routes;
+
+        private final int hashCode;
+
+        private ProxyClassKey(Class<?> superclass, Class<?>[] interfaces, Class<?>[] callbackTypes, int[] routes) {
+            this.superclassName = superclass.getName();
+            this.interfaceNames = toNames(interfaces);
+            this.callbackTypeNames = toNames(callbackTypes);
+            this.routes = routes;
+            int result = this.superclassName.hashCode();
+            result = 31 * result + Arrays.hashCode(this.interfaceNames);
+            result = 31 * result + Arrays.hashCode(this.callbackTypeNames);
+            result = 31 * result + Arrays.hashCode(this.routes);
+            this.hashCode = result;
+        }
+
+        private static String[] toNames(Class<?>[] classes) {
+            String[] names = new String[classes.length];
+            for (int i = 0; i < classes.length; i++) {
+                names[i] = classes[i].getName();
+            }
+            return names;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ProxyClassKey)) {
+                return false;
+            }
+            ProxyClassKey that = (ProxyClassKey)other;
+            return this.hashCode == that.hashCode && this.superclassName.equals(that.superclassName)
+                && Arrays.equals(this.interfaceNames, that.interfaceNames)
+                && Arrays.equals(this.callbackTypeNames, that.callbackTypeNames)
+                && Arrays.equals(this.routes, that.routes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    /**
+     * 缓存的代理类。
+     * 代理类和原型对象都用弱引用保存：代理类由它的ClassLoader持有，ClassLoader存活期间不会被回收；
+     * 原型对象只是任意一个已创建的代理对象，被回收后重新创建即可。
+     */
+    private static final class ProxyClassEntry {
+
+        private final WeakReference<Class<?>> proxyClass;
+
+        private volatile WeakReference<Factory> prototype = new WeakReference<>(null);
+
+        private ProxyClassEntry(Class<?> proxyClass) {
+            this.proxyClass = new WeakReference<>(proxyClass);
+        }
+
+        @Nullable
+        Class<?> getProxyClass() {
+            return this.proxyClass.get();
+        }
+
+        Object newInstance(Callback[] callbacks) {
+            Factory factory = this.prototype.get();
+            if (factory != null) {
+                return factory.newInstance(callbacks);
+            }
+            Class<?> proxyClass = getProxyClass();
+            if (proxyClass == null) {
+                throw new AopConfigException("Proxy class has been unloaded");
+            }
+            // 首个代理对象：通过线程内回调实例化，之后它就是其他代理对象的原型
+            Enhancer.registerCallbacks(proxyClass, callbacks);
+            try {
+                factory = (Factory)proxyClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException ex) {
+                throw new AopConfigException("Unable to instantiate proxy class [" + proxyClass.getName() + "]", ex);
+            } finally {
+                Enhancer.registerCallbacks(proxyClass, null);
+            }
+            this.prototype = new WeakReference<>(factory);
+            return factory;
+        }
+    }
+
+    /**
+     * 方法路由表的缓存key：目标类型，以及Advisor列表以外影响路由的配置
+     */
+    private static final class RoutesKey {
+
+        private final Class<?> targetClass;
+
+        private final Class<?>[] interfaces;
+
+        private final boolean frozen;
+
+        private RoutesKey(Class<?> targetClass, Class<?>[] interfaces, boolean frozen) {
+            this.targetClass = targetClass;
+            this.interfaces = interfaces;
+            this.frozen = frozen;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof RoutesKey)) {
+                return false;
+            }
+            RoutesKey that = (RoutesKey) other;
+            return this.targetClass == that.targetClass && this.frozen == that.frozen
+                && Arrays.equals(this.interfaces, that.interfaces);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.targetClass.hashCode() * 31 + Arrays.hashCode(this.interfaces);
+        }
+    }
+
+    /**
+     * 为每个方法计算一次Advisor匹配结果，与拦截器链一起缓存在Advisor列表对应的缓存中，生成代理类时也用它分派方法：
+     * - 没有匹配任何Advisor的方法，路由到{@link StaticUnadvisedInterceptor}，直接调用目标方法；
+     *   配置冻结时公共方法路由到{@link StaticDispatcher}
+     * - 匹配了Advisor的方法，路由到持有固定拦截器链的{@link FixedChainStaticTargetInterceptor}
+     * - 其余方法（比如计算路由之后才出现的方法）仍走{@link DynamicAdvisedInterceptor}
+     */
+    private static final class ProxyCallbackFilter implements CallbackFilter {
+
+        private final Map<Method, Integer> routeMap = new HashMap<>();
+
+        private final List<Method> fixedChainMethods = new ArrayList<>();
+
+        private final List<Object[]> fixedChains = new ArrayList<>();
+
+        private final Class<?>[] callbackTypes;
+
+        private final ProxyClassKey proxyClassKey;
+
+        private ProxyCallbackFilter(AdvisedSupport advised, Class<?> targetClass, Class<?>[] interfaces) {
+            boolean frozen = advised.isFrozen();
+            List<Method> methods = new ArrayList<>();
+            Enhancer.getMethods(targetClass, interfaces, methods);
+            int[] routes = new int[methods.size()];
+            for (int i = 0; i < methods.size(); i++) {
+                Method method = methods.get(i);
+                Object[] chain = advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+                int route;
+                if (chain.length == 0) {
+                    // 配置冻结时Advisor不会再变化，公共方法可以交给Dispatcher，由代理类直接调用目标对象
+                    route = (frozen && Modifier.isPublic(method.getModifiers())) ? DISPATCH_TARGET : INVOKE_TARGET;
+                } else {
+                    route = FIXED_CHAIN_OFFSET + this.fixedChains.size();
+                    this.fixedChainMethods.add(method);
+                    this.fixedChains.add(FusedAdviceInterceptor.fuse(chain));
+                }
+                this.routeMap.put(method, route);
+                routes[i] = route;
+            }
+            this.callbackTypes = new Class<?>[FIXED_CHAIN_OFFSET + this.fixedChains.size()];
+            this.callbackTypes[AOP_PROXY] = DynamicAdvisedInterceptor.class;
+            this.callbackTypes[INVOKE_TARGET] = StaticUnadvisedInterceptor.class;
+            this.callbackTypes[DISPATCH_TARGET] = StaticDispatcher.class;
+            Arrays.fill(this.callbackTypes, FIXED_CHAIN_OFFSET, this.callbackTypes.length,
+                FixedChainStaticTargetInterceptor.class);
+            this.proxyClassKey = new ProxyClassKey(targetClass, interfaces, this.callbackTypes, routes);
+        }
+
+        @Override
+        public int accept(Method method) {
+            Integer route = this.routeMap.get(method);
+            return (route != null ? route : AOP_PROXY);
+        }
+
+        Class<?>[] getCallbackTypes() {
+            return this.callbackTypes;
+        }
+
+        ProxyClassKey getProxyClassKey() {
+            return this.proxyClassKey;
+        }
+
+        List<Method> getFixedChainMethods() {
+            return this.fixedChainMethods;
+        }
+
+        List<Object[]> getFixedChains() {
+            return this.fixedChains;
+        }
+    }
+
+    /**
+     * 没有任何增强的方法：跳过拦截器链的查找，直接调用目标对象
+     */
+    private static final class StaticUnadvisedInterceptor implements MethodInterceptor {
+
+        private final AdvisedSupport advised;
+
+        private final int adviceChangeCount;
+
+        private final Object target;
+
+        private final DynamicAdvisedInterceptor fallback;
+
+        private StaticUnadvisedInterceptor(AdvisedSupport advised, int adviceChangeCount, Object target,
+            DynamicAdvisedInterceptor fallback) {
+            this.advised = advised;
+            this.adviceChangeCount = adviceChangeCount;
+            this.target = target;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+            if (this.advised.getAdviceChangeCount() != this.adviceChangeCount) {
+                // 创建代理后Advisor发生了变化，路由已不可信：按方法重新计算拦截器链，结果连同新的变更次数记录在拦截器链表中
+                MethodChainTable.Entry entry = this.fallback.resolve(method, this.target.getClass());
+                return invoke(proxy, this.target, method, args, entry, methodProxy);
+            }
+            if (Modifier.isPublic(method.getModifiers())) {
+                return methodProxy.invoke(this.target, args);
+            }
+            return new CglibMethodInvocation(proxy, this.target, method, args, this.target.getClass(),
+                EMPTY_CHAIN, methodProxy).proceed();
+        }
+    }
+
+    /**
+     * 没有任何增强的公共方法（配置已冻结）：代理类拿到目标对象后直接调用，和普通的虚方法调用几乎没有区别
+     */
+    private static final class StaticDispatcher implements Dispatcher {
+
+        private final Object target;
+
+        private StaticDispatcher(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object loadObject() {
+            return this.target;
+        }
+    }
+
+    /**
+     * 拦截器链固定的方法：直接使用生成代理类时计算好的拦截器链；Advisor变化后重新计算一次再继续固定使用
+     */
+    private static final class FixedChainStaticTargetInterceptor implements MethodInterceptor {
+
+        private final AdvisedSupport advised;
+
+        private final Object target;
+
+        private final Class<?> targetClass;
+
+        private final DynamicAdvisedInterceptor fallback;
+
+        // 当前使用的拦截器链及其对应的Advisor变更次数，Advisor变化后重新计算并整体替换
+        private volatile MethodChainTable.Entry entry;
+
+        private FixedChainStaticTargetInterceptor(AdvisedSupport advised, Object target, MethodChainTable.Entry entry,
+            DynamicAdvisedInterceptor fallback) {
+            this.advised = advised;
+            this.target = target;
+            this.targetClass = target.getClass();
+            this.entry = entry;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+            MethodChainTable.Entry entry = this.entry;
+            if (this.advised.getAdviceChangeCount() != entry.getAdviceChangeCount()) {
+                // 创建代理后Advisor发生了变化：重新计算这个方法的拦截器链，之后又回到固定链路
+                entry = this.fallback.resolve(method, this.targetClass);
+                this.entry = entry;
+            }
+            return invoke(proxy, this.target, method, args, entry, methodProxy);
+        }
     }
 
     private static class DynamicAdvisedInterceptor implements MethodInterceptor {
         private final AdvisedSupport advised;
 
+        private final MethodChainTable chainTable = new MethodChainTable();
+
         private DynamicAdvisedInterceptor(AdvisedSupport advised) {
             this.advised = advised;
         }
@@ -44,48 +439,106 @@ public class CglibAopProxy implements AopProxy {
             Object target = advised.getTargetSource().getTarget();
             Class<?> targetClass = target.getClass();
             // 获取拦截器链
-            List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
-            if (chain.isEmpty() && Modifier.isPublic(method.getModifiers())) {
-                // 直接调用目标方法
-                return methodProxy.invoke(target, args);
-            } else {
-                // 创建MethodInvocation，并调用proceed方法：依次执行拦截器链中的拦截器，最后执行目标方法
-                return new CglibMethodInvocation(proxy, target, method, args, targetClass, chain, methodProxy)
-                    .proceed();
-            }
+            MethodChainTable.Entry entry = resolve(method, targetClass);
+            return invoke(proxy, target, method, args, entry, methodProxy);
+        }
+
+        MethodChainTable.Entry resolve(Method method, Class<?> targetClass) {
+            return this.chainTable.resolve(this.advised, method, targetClass);
+        }
+    }
+
+    /**
+     * 按拦截器链调用目标方法
+     */
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args,
+        MethodChainTable.Entry entry, MethodProxy methodProxy) throws Throwable {
+        Object[] chain = entry.getChain();
+        Class<?> targetClass = target.getClass();
+        if (chain.length == 0 && Modifier.isPublic(method.getModifiers())) {
+            // 直接调用目标方法
+            return methodProxy.invoke(target, args);
+        } else if (entry.isReusable()) {
+            // 拦截器不会持有MethodInvocation，复用当前线程的实例
+            return CglibMethodInvocation.proceedReusing(proxy, target, method, args, targetClass, chain,
+                methodProxy);
+        } else {
+            // 创建MethodInvocation，并调用proceed方法：依次执行拦截器链中的拦截器，最后执行目标方法
+            return new CglibMethodInvocation(proxy, target, method, args, targetClass, chain, methodProxy)
+                .proceed();
         }
+    }
 
-        private static class CglibMethodInvocation extends ReflectiveMethodInvocation {
+    private static class CglibMethodInvocation extends ReflectiveMethodInvocation {
 
-            private final MethodProxy methodProxy;
+        private static final ThreadLocal<CglibMethodInvocation> reusableInvocation =
+            new NamedThreadLocal<>("Reusable CGLIB method invocation");
 
-            public CglibMethodInvocation(Object proxy, Object target, Method method, Object[] args,
-                Class<?> targetClass, List<Object> interceptorsAndDynamicMethodMatchers, MethodProxy methodProxy) {
-                super(proxy, target, method, args, targetClass, interceptorsAndDynamicMethodMatchers);
-                // 仅对不是从Object继承的[公共方法]进行初始化
-                this.methodProxy =
-                    (Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class)
-                        ? methodProxy : null;
+        @Nullable
+        private MethodProxy methodProxy;
 
-            }
+        public CglibMethodInvocation(Object proxy, Object target, Method method, Object[] args,
+            Class<?> targetClass, Object[] interceptorsAndDynamicMethodMatchers, MethodProxy methodProxy) {
+            super(proxy, target, method, args, targetClass, interceptorsAndDynamicMethodMatchers);
+            this.methodProxy = getMethodProxyIfPossible(method, methodProxy);
+        }
 
-            @Override
-            public Object proceed() throws Throwable {
-                return super.proceed();
+        private CglibMethodInvocation() {
+            super();
+        }
+
+        /**
+         * 见{@link ReflectiveMethodInvocation#proceedReusing}
+         */
+        static Object proceedReusing(Object proxy, Object target, Method method, Object[] args, Class<?> targetClass,
+            Object[] chain, MethodProxy methodProxy) throws Throwable {
+            CglibMethodInvocation invocation = reusableInvocation.get();
+            if (invocation == null) {
+                invocation = new CglibMethodInvocation();
+                reusableInvocation.set(invocation);
+            }
+            if (invocation.isInUse()) {
+                return new CglibMethodInvocation(proxy, target, method, args, targetClass, chain, methodProxy)
+                    .proceed();
             }
+            invocation.reset(proxy, target, method, args, targetClass, chain);
+            invocation.methodProxy = getMethodProxyIfPossible(method, methodProxy);
+            try {
+                return invocation.proceed();
+            } finally {
+                invocation.release();
+            }
+        }
 
-            /**
-             * 执行目标方法；尽量用CGLib的methodProxy，性能比反射调用好一些
-             */
-            @Override
-            protected Object invokeJoinPoint() throws Throwable {
-                if (this.methodProxy != null) {
-                    // 使用CGLib的methodProxy调用目标方法
-                    return this.methodProxy.invoke(this.target, this.arguments);
-                } else {
-                    // 使用反射调用目标方法
-                    return super.invokeJoinPoint();
-                }
+        @Override
+        protected void release() {
+            super.release();
+            this.methodProxy = null;
+        }
+
+        // 仅对不是从Object继承的[公共方法]使用methodProxy
+        @Nullable
+        private static MethodProxy getMethodProxyIfPossible(Method method, MethodProxy methodProxy) {
+            return (Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class)
+                ? methodProxy : null;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            return super.proceed();
+        }
+
+        /**
+         * 执行目标方法；尽量用CGLib的methodProxy，性能比反射调用好一些
+         */
+        @Override
+        protected Object invokeJoinPoint() throws Throwable {
+            if (this.methodProxy != null) {
+                // 使用CGLib的methodProxy调用目标方法
+                return this.methodProxy.invoke(this.target, this.arguments);
+            } else {
+                // 使用反射调用目标方法
+                return super.invokeJoinPoint();
             }
         }
     }
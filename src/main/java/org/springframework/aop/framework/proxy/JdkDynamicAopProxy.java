@@ -2,19 +2,24 @@ package org.springframework.aop.framework.proxy;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.framework.ReflectiveMethodInvocation;
+import org.springframework.aop.framework.invoker.DefaultMethodInvokerFactory;
 import org.springframework.aop.framework.proxyfactory.AdvisedSupport;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.List;
 
 /**
  * JDK动态代理
  */
 public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
     private final AdvisedSupport advised;
-    
+
+    /**
+     * 代理对象私有的拦截器链表；配置冻结时在创建代理对象前为每个接口方法预先填充
+     */
+    private final MethodChainTable chainTable = new MethodChainTable();
+
     public JdkDynamicAopProxy(AdvisedSupport advised) {
         this.advised = advised;
     }
@@ -24,8 +29,25 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
      */
     @Override
     public Object getProxy() {
+        Class<?>[] proxiedInterfaces = advised.getTargetSource().getTargetClass();
+        if (this.advised.isFrozen()) {
+            resolveFrozenChains(proxiedInterfaces);
+        }
         // 创建JDK动态代理
-        return Proxy.newProxyInstance(getClass().getClassLoader(), advised.getTargetSource().getTargetClass(), this);
+        return Proxy.newProxyInstance(getClass().getClassLoader(), proxiedInterfaces, this);
+    }
+
+    private void resolveFrozenChains(Class<?>[] proxiedInterfaces) {
+        Class<?> targetClass = this.advised.getTargetSource().getTarget().getClass();
+        for (Class<?> proxiedInterface : proxiedInterfaces) {
+            for (Method method : proxiedInterface.getMethods()) {
+                this.chainTable.resolve(this.advised, method, targetClass);
+            }
+        }
+        // JDK代理还会把Object的equals、hashCode、toString转发给InvocationHandler
+        for (Method method : Object.class.getMethods()) {
+            this.chainTable.resolve(this.advised, method, targetClass);
+        }
     }
 
     @Override
@@ -33,10 +55,15 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
         // 获取目标对象
         Object target = advised.getTargetSource().getTarget();
         Class<?> targetClass = target.getClass();
-        // 获取拦截器链
-        List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
-        if (chain == null || chain.isEmpty()) {
-            return method.invoke(target, args);
+        // 获取拦截器链：优先使用代理对象私有的链表，查找时不创建对象
+        MethodChainTable.Entry entry = this.chainTable.resolve(this.advised, method, targetClass);
+        Object[] chain = entry.getChain();
+        if (chain.length == 0) {
+            // 没有拦截器，直接通过调用器执行目标方法
+            return DefaultMethodInvokerFactory.getInstance().getInvoker(method).invoke(target, args);
+        } else if (entry.isReusable()) {
+            // 拦截器不会持有MethodInvocation，复用当前线程的实例
+            return ReflectiveMethodInvocation.proceedReusing(proxy, target, method, args, targetClass, chain);
         } else {
             // 创建MethodInvocation
             MethodInvocation invocation = new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
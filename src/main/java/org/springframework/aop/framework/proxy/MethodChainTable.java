@@ -0,0 +1,150 @@
+package org.springframework.aop.framework.proxy;
+
+import org.springframework.aop.framework.ReflectiveMethodInvocation;
+import org.springframework.aop.framework.interceptor.FusedAdviceInterceptor;
+import org.springframework.aop.framework.proxyfactory.AdvisedSupport;
+import org.springframework.core.common.Nullable;
+
+import java.lang.reflect.Method;
+
+/**
+ * 代理对象私有的拦截器链表：按Method的hashCode做开放寻址，查找时不创建任何对象。
+ * <p>
+ * 同一个代理类传给代理对象的Method实例是固定的，因此先用==比较；
+ * 预先填充时使用的是反射得到的Method副本，与代理传入的实例不是同一个对象，按equals命中后换成代理传入的实例，之后同样用==命中。
+ * 写入采用copy-on-write，读取无锁；每个条目记录写入时的targetClass和Advisor变更次数，不一致即视为失效。
+ * 条目同时记录拦截器链是否允许复用MethodInvocation，调用时不再逐个检查拦截器类型
+ */
+final class MethodChainTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile Entry[] table = new Entry[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * 获取方法的拦截器链，未命中时从{@link AdvisedSupport}计算，合并连续的适配器拦截器后记录下来
+     */
+    Entry resolve(AdvisedSupport advised, Method method, Class<?> targetClass) {
+        // 先读取变更次数再计算，计算期间Advisor发生变化时条目会在下次查找时失效
+        int adviceChangeCount = advised.getAdviceChangeCount();
+        Entry entry = get(method, targetClass, adviceChangeCount);
+        if (entry == null) {
+            Object[] chain =
+                FusedAdviceInterceptor.fuse(advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass));
+            entry = new Entry(method, targetClass, adviceChangeCount, chain);
+            put(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * 查找方法的条目，未命中或已过期时返回null
+     */
+    @Nullable
+    Entry get(Method method, Class<?> targetClass, int adviceChangeCount) {
+        Entry[] tab = this.table;
+        int mask = tab.length - 1;
+        int i = hash(method) & mask;
+        Entry entry;
+        while ((entry = tab[i]) != null) {
+            if (entry.method == method) {
+                return (entry.targetClass == targetClass && entry.adviceChangeCount == adviceChangeCount ?
+                    entry : null);
+            }
+            if (entry.method.equals(method)) {
+                if (entry.targetClass != targetClass || entry.adviceChangeCount != adviceChangeCount) {
+                    return null;
+                }
+                // 预先填充的条目：换成调用方的Method实例，替换掉副本
+                entry = new Entry(method, entry);
+                put(entry);
+                return entry;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    synchronized void put(Entry entry) {
+        Method method = entry.method;
+        Entry[] tab = this.table;
+        int index = indexOf(tab, method);
+        boolean replace = (tab[index] != null);
+        if (!replace && (this.size + 1) * 2 > tab.length) {
+            // 装载因子保持在0.5以下，保证探测序列足够短
+            tab = rehash(tab, tab.length * 2);
+            index = indexOf(tab, method);
+        } else {
+            tab = tab.clone();
+        }
+        tab[index] = entry;
+        if (!replace) {
+            this.size++;
+        }
+        this.table = tab;
+    }
+
+    private static int indexOf(Entry[] tab, Method method) {
+        int mask = tab.length - 1;
+        int i = hash(method) & mask;
+        while (tab[i] != null && tab[i].method != method && !tab[i].method.equals(method)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static int hash(Method method) {
+        // Method#hashCode只由声明类名和方法名得到，不分配对象；重载方法的hash相同，由上面的equals区分
+        int h = method.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static Entry[] rehash(Entry[] tab, int capacity) {
+        Entry[] newTab = new Entry[capacity];
+        for (Entry entry : tab) {
+            if (entry != null) {
+                newTab[indexOf(newTab, entry.method)] = entry;
+            }
+        }
+        return newTab;
+    }
+
+    static final class Entry {
+        private final Method method;
+        private final Class<?> targetClass;
+        private final int adviceChangeCount;
+        private final Object[] chain;
+        // 拦截器链是否允许复用MethodInvocation，写入时计算一次
+        private final boolean reusable;
+
+        Entry(Method method, Class<?> targetClass, int adviceChangeCount, Object[] chain) {
+            this.method = method;
+            this.targetClass = targetClass;
+            this.adviceChangeCount = adviceChangeCount;
+            this.chain = chain;
+            this.reusable = ReflectiveMethodInvocation.isReusableChain(chain);
+        }
+
+        private Entry(Method method, Entry source) {
+            this.method = method;
+            this.targetClass = source.targetClass;
+            this.adviceChangeCount = source.adviceChangeCount;
+            this.chain = source.chain;
+            this.reusable = source.reusable;
+        }
+
+        int getAdviceChangeCount() {
+            return this.adviceChangeCount;
+        }
+
+        Object[] getChain() {
+            return this.chain;
+        }
+
+        boolean isReusable() {
+            return this.reusable;
+        }
+    }
+}
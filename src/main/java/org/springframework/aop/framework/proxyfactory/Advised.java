@@ -10,6 +10,8 @@ public interface Advised {
     
     boolean isProxyTargetClass();
 
+    boolean isFrozen();
+
     void setTargetSource(TargetSource targetSource);
 
     TargetSource getTargetSource();
@@ -18,6 +20,13 @@ public interface Advised {
 
     void addAdvisor(Advisor advisor);
 
+    /**
+     * 移除Advisor
+     *
+     * @return Advisor不存在时返回false
+     */
+    boolean removeAdvisor(Advisor advisor);
+
     void addAdvice(Advice advice);
     
 }
@@ -8,36 +8,47 @@ import org.springframework.aop.support.advisor.Advisor;
 import org.springframework.aop.support.advisor.DefaultPointcutAdvisor;
 import org.springframework.aop.support.advisor.factory.AdvisorChainFactory;
 import org.springframework.aop.support.advisor.factory.DefaultAdvisorChainFactory;
+import org.springframework.core.exception.AopConfigException;
 
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 public class AdvisedSupport extends ProxyConfig implements Advised{
     
     private TargetSource targetSource;
     
-    private final List<Advisor> advisors = new ArrayList<>();
+    // 拦截器链在调用时计算，可能与修改Advisor并发，读取时使用快照
+    private final List<Advisor> advisors = new CopyOnWriteArrayList<>();
     
     private final AdvisorChainFactory advisorChainFactory = new DefaultAdvisorChainFactory();
     
-    private final transient Map<Integer, List<Object>> methodCache;
+    // 当前Advisor列表对应的拦截器链缓存，Advisor完全相同的配置共享同一份
+    private transient volatile AdvisorChainCache chainCache;
+
+    // Advisor每变化一次加1，代理对象据此判断创建时预先计算的路由/拦截器链是否已过期。只在持有锁时修改
+    private transient volatile int adviceChangeCount;
 
     public AdvisedSupport() {
-        this.methodCache = new ConcurrentHashMap<>(32);
+        this.chainCache = AdvisorChainCache.forAdvisors(this.advisors);
     }
 
     /**
-     * 获取与目标方法匹配的拦截器
+     * 获取与目标方法匹配的拦截器。
+     * 返回的数组会被缓存并直接交给MethodInvocation使用，调用方不应修改
      */
-    public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Method method, Class<?> targetClass) {
-        Integer cacheKey = method.hashCode();
-        List<Object> cached = this.methodCache.get(cacheKey);
-        if (cached == null) {
-            cached = this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(this, method, targetClass);
-            this.methodCache.put(cacheKey, cached);
-        }
-        return cached;
+    public Object[] getInterceptorsAndDynamicInterceptionAdvice(Method method, Class<?> targetClass) {
+        return this.chainCache.getChain(this, this.advisorChainFactory, method, targetClass);
+    }
+
+    /**
+     * 获取代理为目标类型预先计算的数据（比如CGLib代理的方法路由表），未命中时通过factory计算。
+     * 数据和拦截器链缓存在一起：Advisor完全相同的配置共享，Advisor变化后不再使用；key需要包含Advisor以外所有影响结果的配置
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getProxyMetadata(Object key, Function<Object, T> factory) {
+        return (T) this.chainCache.getProxyMetadata(this, key, factory);
     }
 
     @Override
@@ -56,35 +67,73 @@ public class AdvisedSupport extends ProxyConfig implements Advised{
     }
 
     @Override
-    public void addAdvisor(Advisor advisor) {
+    public synchronized void addAdvisor(Advisor advisor) {
+        Assert.notNull(advisor, "Advisor must not be null");
+        if (isFrozen()) {
+            throw new AopConfigException("Cannot add advisor: Configuration is frozen.");
+        }
         advisors.add(advisor);
+        advisorsChanged(Collections.singletonList(advisor));
+    }
+
+    @Override
+    public synchronized boolean removeAdvisor(Advisor advisor) {
+        if (isFrozen()) {
+            throw new AopConfigException("Cannot remove Advisor: Configuration is frozen.");
+        }
+        if (!this.advisors.remove(advisor)) {
+            return false;
+        }
+        advisorsChanged(Collections.singletonList(advisor));
+        return true;
     }
 
     public void addAdvisors(Advisor... advisors) {
         addAdvisors(Arrays.asList(advisors));
     }
 
-    private <T> void addAdvisors(Collection<Advisor> advisors) {
+    private synchronized <T> void addAdvisors(Collection<Advisor> advisors) {
+        if (isFrozen()) {
+            throw new AopConfigException("Cannot add advisor: Configuration is frozen.");
+        }
         if (!CollUtil.isEmpty(advisors)) {
             for (Advisor advisor : advisors) {
                 Assert.notNull(advisor, "Advisor must not be null");
-                this.advisors.add(advisor);
             }
-            adviceChanged();
+            this.advisors.addAll(advisors);
+            advisorsChanged(advisors);
+        }
+    }
+
+    /**
+     * Advisor发生了无法确定影响范围的变化，所有拦截器链都需要重新计算
+     */
+    protected synchronized void adviceChanged() {
+        this.chainCache = AdvisorChainCache.forAdvisors(this.advisors);
+        this.adviceChangeCount++;
+    }
+
+    /**
+     * 增加或移除了指定的Advisor：只重新计算可能受影响的拦截器链，新缓存准备好之后再整体替换。调用方需持有锁
+     */
+    private void advisorsChanged(Collection<Advisor> changedAdvisors) {
+        Class<?> targetClass = null;
+        if (this.targetSource != null && this.targetSource.getTarget() != null) {
+            targetClass = this.targetSource.getTarget().getClass();
         }
+        this.chainCache = this.chainCache.derive(this, this.advisorChainFactory, targetClass, changedAdvisors);
+        this.adviceChangeCount++;
     }
 
-    protected void adviceChanged() {
-        this.methodCache.clear();
+    /**
+     * Advisor的变更次数，配合代理对象中预先计算的结果使用：次数不一致说明Advisor已经变化
+     */
+    public int getAdviceChangeCount() {
+        return this.adviceChangeCount;
     }
 
     @Override
     public void addAdvice(Advice advice) {
         addAdvisor(new DefaultPointcutAdvisor(advice));
     }
-
-    // ------- getter/setter --------
-    
-    
-    
 }
@@ -0,0 +1,190 @@
+package org.springframework.aop.framework.proxyfactory;
+
+import cn.hutool.core.map.WeakConcurrentMap;
+import org.springframework.aop.support.advisor.Advisor;
+import org.springframework.aop.support.advisor.PointcutAdvisor;
+import org.springframework.aop.support.advisor.factory.AdvisorChainFactory;
+import org.springframework.core.common.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 按Advisor列表共享的拦截器链缓存。
+ * <p>
+ * Advisor列表（按identity和顺序比较）就是这份缓存的指纹：Advisor完全相同的{@link AdvisedSupport}拿到的是同一个实例，
+ * 对同一个(Method, 目标类)只会计算一次拦截器链。实例本身只被使用它的AdvisedSupport强引用，
+ * 全局表中的key和value都是弱引用，不再使用后连同缓存的Method、目标类一起被回收
+ */
+final class AdvisorChainCache {
+
+    private static final Map<AdvisorChainCache, WeakReference<AdvisorChainCache>> internedCaches =
+        new WeakConcurrentMap<>();
+
+    private final Advisor[] advisors;
+
+    private final int hash;
+
+    private final Map<MethodCacheKey, Object[]> chains = new ConcurrentHashMap<>(32);
+
+    // 代理按目标类型预先计算的数据，与拦截器链一样只由Advisor列表决定
+    private final Map<Object, Object> proxyMetadata = new ConcurrentHashMap<>(4);
+
+    private AdvisorChainCache(Advisor[] advisors) {
+        this.advisors = advisors;
+        int hash = 1;
+        for (Advisor advisor : advisors) {
+            hash = hash * 31 + System.identityHashCode(advisor);
+        }
+        this.hash = hash;
+    }
+
+    /**
+     * 获取与给定Advisor列表对应的共享缓存
+     */
+    static AdvisorChainCache forAdvisors(List<Advisor> advisors) {
+        AdvisorChainCache candidate = new AdvisorChainCache(advisors.toArray(new Advisor[0]));
+        WeakReference<AdvisorChainCache> reference =
+            internedCaches.computeIfAbsent(candidate, key -> new WeakReference<>(key));
+        AdvisorChainCache interned = reference.get();
+        // key被回收时value一定也已被回收，此时条目不会再被匹配到，直接使用新实例即可
+        return (interned != null ? interned : candidate);
+    }
+
+    /**
+     * 获取方法的拦截器链，未命中时通过chainFactory计算。config的Advisor列表必须与本缓存的一致
+     */
+    Object[] getChain(Advised config, AdvisorChainFactory chainFactory, Method method, Class<?> targetClass) {
+        MethodCacheKey cacheKey = new MethodCacheKey(method, targetClass);
+        Object[] chain = this.chains.get(cacheKey);
+        if (chain == null) {
+            chain = chainFactory.getInterceptorsAndDynamicInterceptionAdvice(config, method, targetClass).toArray();
+            if (!isFor(config.getAdvisors())) {
+                // 计算期间config的Advisor列表发生了变化，结果不属于本缓存（可能被其他配置共享），只返回不缓存
+                return chain;
+            }
+            Object[] existing = this.chains.putIfAbsent(cacheKey, chain);
+            if (existing != null) {
+                // 其他代理已经计算过，统一使用同一个数组
+                chain = existing;
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * 获取代理预先计算的数据，未命中时通过factory计算。config的Advisor列表必须与本缓存的一致
+     */
+    Object getProxyMetadata(Advised config, Object key, Function<Object, ?> factory) {
+        Object metadata = this.proxyMetadata.get(key);
+        if (metadata == null) {
+            metadata = factory.apply(key);
+            if (!isFor(config.getAdvisors())) {
+                return metadata;
+            }
+            Object existing = this.proxyMetadata.putIfAbsent(key, metadata);
+            if (existing != null) {
+                metadata = existing;
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Advisor列表变化后得到新的缓存：本缓存中已计算的拦截器链，只有可能受变化的Advisor影响的才重新计算，其余原样带到新缓存。
+     * <p>
+     * 新缓存在返回前就已经填充完毕，调用方替换引用之前，正在进行的调用仍然无锁地使用本缓存
+     *
+     * 缓存可能被多个配置共享，这里只带上config的目标类相关的条目，其他配置的方法不需要也不应该用config的切点去匹配
+     *
+     * @param config           Advisor列表已经更新的配置
+     * @param targetClass      config的目标类，为null时不带上任何条目
+     * @param changedAdvisors  新增或移除的Advisor
+     */
+    AdvisorChainCache derive(Advised config, AdvisorChainFactory chainFactory, @Nullable Class<?> targetClass,
+        Collection<Advisor> changedAdvisors) {
+        AdvisorChainCache derived = forAdvisors(config.getAdvisors());
+        if (derived == this || targetClass == null) {
+            return derived;
+        }
+        for (Map.Entry<MethodCacheKey, Object[]> entry : this.chains.entrySet()) {
+            MethodCacheKey cacheKey = entry.getKey();
+            if (cacheKey.getTargetClass() != targetClass || derived.chains.containsKey(cacheKey)) {
+                continue;
+            }
+            Object[] chain = entry.getValue();
+            if (isAffected(cacheKey, changedAdvisors)) {
+                chain = chainFactory.getInterceptorsAndDynamicInterceptionAdvice(config, cacheKey.getMethod(),
+                    cacheKey.getTargetClass()).toArray();
+            }
+            derived.chains.putIfAbsent(cacheKey, chain);
+        }
+        return derived;
+    }
+
+    /**
+     * 判断变化的Advisor是否可能出现在方法的拦截器链中，判断方式与{@link AdvisorChainFactory}匹配Advisor的方式一致
+     */
+    private static boolean isAffected(MethodCacheKey cacheKey, Collection<Advisor> changedAdvisors) {
+        Method method = cacheKey.getMethod();
+        Class<?> actualClass = cacheKey.getTargetClass();
+        for (Advisor advisor : changedAdvisors) {
+            if (!(advisor instanceof PointcutAdvisor)) {
+                return true;
+            }
+            PointcutAdvisor pointcutAdvisor = (PointcutAdvisor) advisor;
+            if (pointcutAdvisor.getPointcut().getClassFilter().matches(actualClass)
+                && pointcutAdvisor.getPointcut().getMethodMatcher().matches(method, actualClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Advisor列表是否与本缓存的一致（按identity和顺序比较）
+     */
+    private boolean isFor(List<Advisor> advisors) {
+        return isFor(advisors.toArray(new Advisor[0]));
+    }
+
+    private boolean isFor(Advisor[] otherAdvisors) {
+        if (this.advisors.length != otherAdvisors.length) {
+            return false;
+        }
+        for (int i = 0; i < this.advisors.length; i++) {
+            if (this.advisors[i] != otherAdvisors[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof AdvisorChainCache)) {
+            return false;
+        }
+        return isFor(((AdvisorChainCache) other).advisors);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return "AdvisorChainCache: advisors " + Arrays.toString(this.advisors) + "; " + this.chains.size() +
+            " cached chains";
+    }
+}
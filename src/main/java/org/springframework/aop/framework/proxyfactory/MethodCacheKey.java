@@ -0,0 +1,51 @@
+package org.springframework.aop.framework.proxyfactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * 拦截器链缓存的key：比较Method（先比较identity，再按声明类、方法名和参数类型比较）和目标类的identity，hash在构造时计算好。
+ * 重载方法、不同类中同名的方法以及不同的目标类都会得到不同的key；
+ * 同一个方法通过反射多次获取得到的不同Method实例则是同一个key，预先计算的拦截器链对代理传入的Method同样有效
+ */
+final class MethodCacheKey {
+    private final Method method;
+    private final Class<?> targetClass;
+    private final int hash;
+
+    MethodCacheKey(Method method, Class<?> targetClass) {
+        this.method = method;
+        this.targetClass = targetClass;
+        this.hash = method.hashCode() * 31 + (targetClass != null ? targetClass.hashCode() : 0);
+    }
+
+    Method getMethod() {
+        return this.method;
+    }
+
+    Class<?> getTargetClass() {
+        return this.targetClass;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof MethodCacheKey)) {
+            return false;
+        }
+        MethodCacheKey otherKey = (MethodCacheKey) other;
+        return this.targetClass == otherKey.targetClass &&
+            (this.method == otherKey.method || this.method.equals(otherKey.method));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return this.method + " on " + this.targetClass;
+    }
+}
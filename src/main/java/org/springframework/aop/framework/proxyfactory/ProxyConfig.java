@@ -13,6 +13,12 @@ public class ProxyConfig implements Serializable {
     // 是否直接代理目标Class（CGLib），默认false。详见@EnableAspectJAutoProxy
     private boolean proxyTargetClass = false;
 
+    // 是否冻结配置，默认false。冻结后不能再修改Advisor，代理对象可以在创建时预先计算好每个方法的拦截器链
+    private boolean frozen = false;
+
+    // 是否在创建代理对象前计算目标类所有方法的拦截器链，默认false。避免第一次调用时才做切点匹配
+    private boolean warmUpChains = false;
+
     public void setProxyTargetClass(boolean proxyTargetClass) {
         this.proxyTargetClass = proxyTargetClass;
     }
@@ -21,8 +27,26 @@ public class ProxyConfig implements Serializable {
         return this.proxyTargetClass;
     }
 
+    public void setFrozen(boolean frozen) {
+        this.frozen = frozen;
+    }
+
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    public void setWarmUpChains(boolean warmUpChains) {
+        this.warmUpChains = warmUpChains;
+    }
+
+    public boolean isWarmUpChains() {
+        return this.warmUpChains;
+    }
+
     @Override
     public String toString() {
-        return "proxyTargetClass=" + this.proxyTargetClass + "; ";
+        return "proxyTargetClass=" + this.proxyTargetClass + "; " +
+            "frozen=" + this.frozen + "; " +
+            "warmUpChains=" + this.warmUpChains;
     }
 }
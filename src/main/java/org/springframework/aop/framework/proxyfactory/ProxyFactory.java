@@ -3,16 +3,86 @@ package org.springframework.aop.framework.proxyfactory;
 import org.springframework.aop.framework.proxy.AopProxy;
 import org.springframework.aop.framework.proxy.CglibAopProxy;
 import org.springframework.aop.framework.proxy.JdkDynamicAopProxy;
+import org.springframework.core.common.Nullable;
+import org.springframework.core.util.ClassUtils;
+import org.springframework.core.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class ProxyFactory extends AdvisedSupport{
 
+    // 最近一次预热拦截器链的耗时（纳秒），没有预热过为-1
+    private volatile long warmUpNanos = -1;
+
+    // 并行预热拦截器链使用的线程池，为null时在当前线程依次计算
+    @Nullable
+    private transient Executor warmUpExecutor;
+
     public ProxyFactory() {
     }
-    
+
     public Object getProxy() {
+        if (isWarmUpChains()) {
+            warmUpChains();
+        }
         return createAopProxy().getProxy();
     }
 
+    /**
+     * 设置并行预热拦截器链使用的线程池，由调用方控制并发度。
+     * 预热时当前线程会等待所有方法计算完成，不能传入当前线程所在的、容量已满的线程池
+     */
+    public void setWarmUpExecutor(@Nullable Executor warmUpExecutor) {
+        this.warmUpExecutor = warmUpExecutor;
+    }
+
+    /**
+     * 预先计算目标类及其接口上所有方法的拦截器链，代理对象的第一次调用就不用再做切点匹配。
+     * 设置了{@link #setWarmUpExecutor 线程池}时各个方法在其中并行计算，否则在当前线程依次计算
+     *
+     * @return 耗时（纳秒）
+     */
+    public long warmUpChains() {
+        long start = System.nanoTime();
+        Class<?> targetClass = getTargetSource().getTarget().getClass();
+        // CGLib代理传入的是类上的方法，JDK代理传入的是接口上的方法，两者都要计算
+        Set<Method> methods = new LinkedHashSet<>();
+        ReflectionUtils.MethodFilter filter =
+            method -> !Modifier.isStatic(method.getModifiers()) && !Modifier.isPrivate(method.getModifiers());
+        ReflectionUtils.doWithMethods(targetClass, methods::add, filter);
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            ReflectionUtils.doWithMethods(ifc, methods::add, filter);
+        }
+        Executor executor = this.warmUpExecutor;
+        if (executor == null) {
+            for (Method method : methods) {
+                getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+            }
+        } else {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[methods.size()];
+            int i = 0;
+            for (Method method : methods) {
+                futures[i++] = CompletableFuture.runAsync(
+                    () -> getInterceptorsAndDynamicInterceptionAdvice(method, targetClass), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+        this.warmUpNanos = System.nanoTime() - start;
+        return this.warmUpNanos;
+    }
+
+    /**
+     * 最近一次预热拦截器链的耗时（纳秒），没有预热过返回-1
+     */
+    public long getWarmUpNanos() {
+        return this.warmUpNanos;
+    }
+
     private AopProxy createAopProxy() {
         if (this.isProxyTargetClass() || this.getTargetSource().getTargetClass().length == 0) {
             return new CglibAopProxy(this);
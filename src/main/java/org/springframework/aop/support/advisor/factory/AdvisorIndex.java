@@ -0,0 +1,140 @@
+package org.springframework.aop.support.advisor.factory;
+
+import cn.hutool.core.map.WeakConcurrentMap;
+import org.springframework.aop.support.advisor.Advisor;
+import org.springframework.aop.support.advisor.PointcutAdvisor;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+import org.springframework.aop.support.pointcut.Pointcut;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
+/**
+ * Advisor列表的索引，供构建拦截器链时缩小需要匹配的Advisor范围。
+ * <p>
+ * 按目标类分桶：每个目标类只执行一次各Advisor的ClassFilter，得到候选Advisor的下标（保持Advisor原有顺序），
+ * 并一次性算出候选Advisor对目标类所有方法的匹配矩阵（{@link AdvisorMatchMatrix}）。
+ * Advisor列表（按identity和顺序比较）相同的配置共享同一个索引，同一个目标类的所有代理共享同一个匹配矩阵
+ */
+public final class AdvisorIndex {
+
+    private static final int[] NO_CANDIDATES = new int[0];
+
+    private static final Map<AdvisorIndex, WeakReference<AdvisorIndex>> internedIndexes = new WeakConcurrentMap<>();
+
+    private final Advisor[] advisors;
+
+    private final int hash;
+
+    // 与方法无关的Advisor：不是PointcutAdvisor，或者MethodMatcher为TRUE
+    private final boolean[] methodIndependent;
+
+    // 目标类（弱引用） -> 匹配矩阵
+    private final Map<Class<?>, AdvisorMatchMatrix> matricesByClass = new WeakConcurrentMap<>();
+
+    private AdvisorIndex(Advisor[] advisors) {
+        this.advisors = advisors;
+        int hash = 1;
+        for (Advisor advisor : advisors) {
+            hash = hash * 31 + System.identityHashCode(advisor);
+        }
+        this.hash = hash;
+        this.methodIndependent = new boolean[advisors.length];
+        for (int i = 0; i < advisors.length; i++) {
+            this.methodIndependent[i] = !(advisors[i] instanceof PointcutAdvisor) ||
+                ((PointcutAdvisor) advisors[i]).getPointcut().getMethodMatcher() == MethodMatcher.TRUE;
+        }
+    }
+
+    /**
+     * 获取与给定Advisor列表对应的共享索引
+     */
+    public static AdvisorIndex forAdvisors(Advisor[] advisors) {
+        AdvisorIndex candidate = new AdvisorIndex(advisors);
+        WeakReference<AdvisorIndex> reference =
+            internedIndexes.computeIfAbsent(candidate, key -> new WeakReference<>(key));
+        AdvisorIndex interned = reference.get();
+        return (interned != null ? interned : candidate);
+    }
+
+    /**
+     * 判断索引是否是为给定的Advisor列表（按identity和顺序比较）建立的
+     */
+    public boolean isFor(Advisor[] advisors) {
+        if (this.advisors.length != advisors.length) {
+            return false;
+        }
+        for (int i = 0; i < advisors.length; i++) {
+            if (this.advisors[i] != advisors[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取可能匹配目标类中方法的Advisor下标，按Advisor原有顺序排列
+     */
+    public int[] getCandidates(Class<?> targetClass) {
+        return getMatchMatrix(targetClass).getCandidates();
+    }
+
+    /**
+     * 获取目标类的匹配矩阵，第一次请求时计算。并发时可能重复计算，结果相同
+     */
+    public AdvisorMatchMatrix getMatchMatrix(Class<?> targetClass) {
+        AdvisorMatchMatrix matrix = this.matricesByClass.get(targetClass);
+        if (matrix == null) {
+            matrix = new AdvisorMatchMatrix(this, computeCandidates(targetClass), targetClass);
+            this.matricesByClass.put(targetClass, matrix);
+        }
+        return matrix;
+    }
+
+    private int[] computeCandidates(Class<?> targetClass) {
+        int[] candidates = new int[this.advisors.length];
+        int count = 0;
+        for (int i = 0; i < this.advisors.length; i++) {
+            Advisor advisor = this.advisors[i];
+            if (!(advisor instanceof PointcutAdvisor)) {
+                candidates[count++] = i;
+                continue;
+            }
+            Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+            if (pointcut.getClassFilter().matches(targetClass)) {
+                candidates[count++] = i;
+            }
+        }
+        if (count == 0) {
+            return NO_CANDIDATES;
+        }
+        int[] result = new int[count];
+        System.arraycopy(candidates, 0, result, 0, count);
+        return result;
+    }
+
+    public Advisor getAdvisor(int index) {
+        return this.advisors[index];
+    }
+
+    /**
+     * 下标对应的Advisor是否对目标类中的所有方法都匹配，不需要再执行MethodMatcher
+     */
+    public boolean isMethodIndependent(int index) {
+        return this.methodIndependent[index];
+    }
+
+    public int size() {
+        return this.advisors.length;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return (this == other || (other instanceof AdvisorIndex && isFor(((AdvisorIndex) other).advisors)));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+}
@@ -0,0 +1,145 @@
+package org.springframework.aop.support.advisor.factory;
+
+import org.springframework.aop.support.advisor.PointcutAdvisor;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+import org.springframework.core.util.ClassUtils;
+import org.springframework.core.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一个目标类的匹配矩阵：候选Advisor × 目标类方法的位图。
+ * <p>
+ * 第一次遇到目标类时一次性算好：ClassFilter只执行一次，得到候选Advisor；再按Advisor逐个对目标类的所有方法（包括接口方法）执行MethodMatcher。
+ * 之后构建拦截器链只需要找到方法所在的行，扫描其中为1的位。每行占用 ceil(候选Advisor数 / 64) 个long。
+ * <p>
+ * 矩阵以目标类为弱引用key缓存，因此不能引用目标类的Method（Method会强引用声明类）：行号按方法签名字符串查找
+ */
+public final class AdvisorMatchMatrix {
+
+    private final int[] candidates;
+
+    // 候选Advisor的MethodMatcher是否需要在调用时再次匹配，下标与candidates一致
+    private final boolean[] runtime;
+
+    private final int wordsPerRow;
+
+    // 方法签名 -> 行号
+    private final Map<String, Integer> rows;
+
+    private final long[] bits;
+
+    AdvisorMatchMatrix(AdvisorIndex index, int[] candidates, Class<?> targetClass) {
+        this.candidates = candidates;
+        this.runtime = new boolean[candidates.length];
+        this.wordsPerRow = (candidates.length + 63) >>> 6;
+        Method[] methods = collectMethods(targetClass);
+        Map<String, Integer> rows = new HashMap<>(methods.length * 2);
+        for (int row = 0; row < methods.length; row++) {
+            rows.put(signatureOf(methods[row]), row);
+        }
+        this.rows = rows;
+        this.bits = new long[methods.length * this.wordsPerRow];
+        // 按Advisor批量匹配，同一个MethodMatcher连续执行
+        for (int position = 0; position < candidates.length; position++) {
+            int word = position >>> 6;
+            long mask = 1L << position;
+            if (index.isMethodIndependent(candidates[position])) {
+                for (int row = 0; row < methods.length; row++) {
+                    this.bits[row * this.wordsPerRow + word] |= mask;
+                }
+                continue;
+            }
+            MethodMatcher mm =
+                ((PointcutAdvisor) index.getAdvisor(candidates[position])).getPointcut().getMethodMatcher();
+            this.runtime[position] = mm.isRuntime();
+            for (int row = 0; row < methods.length; row++) {
+                if (mm.matches(methods[row], targetClass)) {
+                    this.bits[row * this.wordsPerRow + word] |= mask;
+                }
+            }
+        }
+    }
+
+    /**
+     * 目标类的实例方法和接口方法：CGLib代理传入的是类上的方法，JDK代理传入的是接口上的方法
+     */
+    private static Method[] collectMethods(Class<?> targetClass) {
+        Set<Method> methods = new LinkedHashSet<>();
+        ReflectionUtils.MethodFilter filter =
+            method -> !Modifier.isStatic(method.getModifiers()) && !Modifier.isPrivate(method.getModifiers());
+        ReflectionUtils.doWithMethods(targetClass, methods::add, filter);
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            ReflectionUtils.doWithMethods(ifc, methods::add, filter);
+        }
+        return methods.toArray(new Method[0]);
+    }
+
+    /**
+     * 声明类、方法名、参数类型和返回类型组成的签名，只包含类名，不引用Class。
+     * 协变重写与编译器生成的桥接方法只有返回类型不同，必须各占一行
+     */
+    private static String signatureOf(Method method) {
+        StringBuilder signature = new StringBuilder(64).append(method.getDeclaringClass().getName()).append('#')
+            .append(method.getName()).append('(');
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            signature.append(parameterType.getName()).append(',');
+        }
+        return signature.append(')').append(method.getReturnType().getName()).toString();
+    }
+
+    /**
+     * 通过ClassFilter的候选Advisor下标，按Advisor原有顺序排列
+     */
+    public int[] getCandidates() {
+        return this.candidates;
+    }
+
+    /**
+     * 方法所在的行，方法不在矩阵中时返回-1
+     */
+    public int getRow(Method method) {
+        Integer row = this.rows.get(signatureOf(method));
+        return (row != null ? row : -1);
+    }
+
+    /**
+     * 从position开始（包括position）查找行中下一个匹配的候选Advisor位置，没有时返回-1
+     */
+    public int nextMatch(int row, int position) {
+        if (position >= this.candidates.length) {
+            return -1;
+        }
+        int offset = row * this.wordsPerRow;
+        int word = position >>> 6;
+        long current = this.bits[offset + word] & (-1L << position);
+        while (true) {
+            if (current != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(current);
+            }
+            if (++word == this.wordsPerRow) {
+                return -1;
+            }
+            current = this.bits[offset + word];
+        }
+    }
+
+    /**
+     * 位置对应的候选Advisor
+     */
+    public int getCandidate(int position) {
+        return this.candidates[position];
+    }
+
+    /**
+     * 位置对应的候选Advisor是否需要在调用时根据参数再次匹配
+     */
+    public boolean isRuntime(int position) {
+        return this.runtime[position];
+    }
+}
@@ -1,11 +1,13 @@
 package org.springframework.aop.support.advisor.factory;
 
 import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.InterceptorAndDynamicMethodMatcher;
 import org.springframework.aop.framework.interceptor.adapter.registry.AdvisorAdapterRegistry;
 import org.springframework.aop.framework.interceptor.adapter.registry.DefaultAdvisorAdapterRegistry;
 import org.springframework.aop.framework.proxyfactory.Advised;
 import org.springframework.aop.support.advisor.Advisor;
 import org.springframework.aop.support.advisor.PointcutAdvisor;
+import org.springframework.aop.support.pointcut.MethodMatcher;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -19,30 +21,65 @@ import java.util.List;
  **/
 public class DefaultAdvisorChainFactory implements AdvisorChainFactory {
 
+    // 最近一次使用的Advisor索引，Advisor列表变化后重新获取
+    private volatile AdvisorIndex advisorIndex;
+
     @Override
     public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Advised config, Method method,
         Class<?> targetClass) {
         AdvisorAdapterRegistry registry = DefaultAdvisorAdapterRegistry.getInstance();
-        Advisor[] advisors = config.getAdvisors().toArray(new Advisor[0]);
-        List<Object> interceptorList = new ArrayList<>(advisors.length);
+        AdvisorIndex index = obtainAdvisorIndex(config.getAdvisors().toArray(new Advisor[0]));
+        List<Object> interceptorList = new ArrayList<>(index.size());
         Class<?> actualClass = (targetClass != null ? targetClass : method.getDeclaringClass());
-        for (Advisor advisor : advisors) {
-            // 是PointcutAdvisor，则取出Pointcut去匹配
-            if (advisor instanceof PointcutAdvisor) {
-                PointcutAdvisor pointcutAdvisor = (PointcutAdvisor)advisor;
-                if (pointcutAdvisor.getPointcut().getClassFilter().matches(actualClass)
-                    && (pointcutAdvisor.getPointcut().getMethodMatcher().matches(method, actualClass))) {
-                    MethodInterceptor[] interceptors = registry.getInterceptors(advisor);
-                    interceptorList.addAll(Arrays.asList(interceptors));
-                }
+        AdvisorMatchMatrix matrix = index.getMatchMatrix(actualClass);
+        int row = matrix.getRow(method);
+        if (row >= 0) {
+            // 方法在匹配矩阵中，直接扫描匹配的位
+            int position = matrix.nextMatch(row, 0);
+            while (position >= 0) {
+                addInterceptors(interceptorList, registry, index.getAdvisor(matrix.getCandidate(position)),
+                    matrix.isRuntime(position));
+                position = matrix.nextMatch(row, position + 1);
+            }
+            return interceptorList;
+        }
+        // 只匹配ClassFilter已经通过的候选Advisor
+        for (int candidate : matrix.getCandidates()) {
+            Advisor advisor = index.getAdvisor(candidate);
+            // 不是PointcutAdvisor或与方法无关的Advisor默认匹配通过，否则取出Pointcut去匹配方法
+            if (index.isMethodIndependent(candidate)) {
+                addInterceptors(interceptorList, registry, advisor, false);
+                continue;
             }
-            // 否则默认匹配通过
-            else {
-                MethodInterceptor[] interceptors = registry.getInterceptors(advisor);
-                interceptorList.addAll(Arrays.asList(interceptors));
+            MethodMatcher mm = ((PointcutAdvisor) advisor).getPointcut().getMethodMatcher();
+            if (mm.matches(method, actualClass)) {
+                addInterceptors(interceptorList, registry, advisor, mm.isRuntime());
             }
         }
         return interceptorList;
     }
 
+    private void addInterceptors(List<Object> interceptorList, AdvisorAdapterRegistry registry, Advisor advisor,
+        boolean runtime) {
+        MethodInterceptor[] interceptors = registry.getInterceptors(advisor);
+        if (runtime) {
+            // 需要在调用时根据参数再次匹配，与拦截器一起放入拦截器链
+            MethodMatcher mm = ((PointcutAdvisor) advisor).getPointcut().getMethodMatcher();
+            for (MethodInterceptor interceptor : interceptors) {
+                interceptorList.add(new InterceptorAndDynamicMethodMatcher(interceptor, mm));
+            }
+        } else {
+            interceptorList.addAll(Arrays.asList(interceptors));
+        }
+    }
+
+    private AdvisorIndex obtainAdvisorIndex(Advisor[] advisors) {
+        AdvisorIndex index = this.advisorIndex;
+        if (index == null || !index.isFor(advisors)) {
+            index = AdvisorIndex.forAdvisors(advisors);
+            this.advisorIndex = index;
+        }
+        return index;
+    }
+
 }
@@ -0,0 +1,99 @@
+package org.springframework.aop.support.pointcut;
+
+/**
+ * 组合匹配器中子匹配器的执行顺序：按实测的开销和短路概率排序，开销小、最容易短路的先执行。
+ * <p>
+ * 统计数据是近似值：计数器是普通的long数组，并发时用不加锁的++更新，允许丢失更新、读到旧值，
+ * 重新排序也可能被跳过或重复执行。它们只用于启发式排序，顺序变化不影响匹配结果，不值得在匹配路径上付出原子操作的代价
+ */
+final class AdaptiveOrdering {
+
+    // 每评估这么多次重新排序一次
+    private static final int REORDER_INTERVAL = 256;
+
+    // 每16次评估采样一次耗时，避免频繁调用System.nanoTime
+    private static final int SAMPLE_MASK = 15;
+
+    // 以下统计数据都是近似值，见类注释
+    private final long[] evaluations;
+
+    private final long[] shortCircuits;
+
+    private final long[] sampledNanos;
+
+    private final long[] samples;
+
+    private volatile int[] order;
+
+    private int ticks;
+
+    AdaptiveOrdering(int size) {
+        this.evaluations = new long[size];
+        this.shortCircuits = new long[size];
+        this.sampledNanos = new long[size];
+        this.samples = new long[size];
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        this.order = order;
+    }
+
+    /**
+     * 当前的执行顺序（子匹配器的下标）
+     */
+    int[] order() {
+        return this.order;
+    }
+
+    /**
+     * 本次评估是否需要采样耗时
+     */
+    boolean shouldSample() {
+        return (++this.ticks & SAMPLE_MASK) == 0;
+    }
+
+    /**
+     * 记录一次子匹配器的评估
+     *
+     * @param index          子匹配器下标
+     * @param nanos          耗时，未采样时为负数
+     * @param shortCircuited 结果是否让组合匹配器提前结束
+     */
+    void record(int index, long nanos, boolean shortCircuited) {
+        long count = ++this.evaluations[index];
+        if (shortCircuited) {
+            this.shortCircuits[index]++;
+        }
+        if (nanos >= 0) {
+            this.sampledNanos[index] += nanos;
+            this.samples[index]++;
+        }
+        if (index == this.order[0] && count % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+    }
+
+    private void reorder() {
+        int size = this.evaluations.length;
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            double cost = (this.samples[i] > 0 ? (double) this.sampledNanos[i] / this.samples[i] : 1);
+            // 拉普拉斯平滑，避免从未短路的子匹配器得分无穷大
+            double shortCircuitRate = (this.shortCircuits[i] + 1.0) / (this.evaluations[i] + 2.0);
+            scores[i] = cost / shortCircuitRate;
+        }
+        // 子匹配器很少，在当前顺序的副本上做插入排序：顺序通常已经接近有序，也不需要装箱
+        int[] order = this.order.clone();
+        for (int i = 1; i < size; i++) {
+            int index = order[i];
+            int j = i - 1;
+            while (j >= 0 && scores[order[j]] > scores[index]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+        this.order = order;
+    }
+}
@@ -0,0 +1,38 @@
+package org.springframework.aop.support.pointcut;
+
+import java.lang.annotation.Annotation;
+
+import cn.hutool.core.lang.Assert;
+
+/**
+ * 按类上的注解匹配的ClassFilter，查找结果来自{@link AnnotationIndex}
+ */
+public class AnnotationClassFilter implements ClassFilter {
+
+    private final Class<? extends Annotation> annotationType;
+
+    private final boolean checkInherited;
+
+    public AnnotationClassFilter(Class<? extends Annotation> annotationType) {
+        this(annotationType, false);
+    }
+
+    /**
+     * @param checkInherited 是否同时检查父类和接口上的注解
+     */
+    public AnnotationClassFilter(Class<? extends Annotation> annotationType, boolean checkInherited) {
+        Assert.notNull(annotationType, "Annotation type must not be null");
+        this.annotationType = annotationType;
+        this.checkInherited = checkInherited;
+    }
+
+    @Override
+    public boolean matches(Class<?> clazz) {
+        return AnnotationIndex.getInstance().hasTypeAnnotation(clazz, this.annotationType, this.checkInherited);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + ": " + this.annotationType;
+    }
+}
@@ -0,0 +1,192 @@
+package org.springframework.aop.support.pointcut;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.common.Nullable;
+
+/**
+ * 按类缓存的注解索引（单例）。
+ * <p>
+ * 每个类只扫描一次：类本身、父类和所有接口（包括接口的父接口）上的注解，以及这些类型中声明的每个方法上的注解。
+ * 同签名的方法（重写或实现的方法）共享合并后的注解集合，因此无论传入的是接口方法还是实现类方法，都只需要一次Map查找。
+ * 注解上的元注解（除java.lang.annotation包中的注解）也会被记录，组合注解可以直接按元注解匹配。
+ * <p>
+ * 索引引用了类的Method和注解类型，它们都能强引用到类本身，所以不能放在以类为弱引用key的Map中，
+ * 而是通过{@link ClassValue}挂在类上，随类和ClassLoader一起回收
+ */
+public final class AnnotationIndex {
+
+    private static final AnnotationIndex INSTANCE = new AnnotationIndex();
+
+    private final ClassValue<ClassAnnotations> index = new ClassValue<ClassAnnotations>() {
+        @Override
+        protected ClassAnnotations computeValue(Class<?> type) {
+            return new ClassAnnotations(type);
+        }
+    };
+
+    private AnnotationIndex() {
+    }
+
+    public static AnnotationIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 类上是否有指定注解
+     *
+     * @param checkInherited 是否检查父类和接口上的注解；为false时只检查类本身的注解（包括@Inherited继承来的注解）
+     */
+    public boolean hasTypeAnnotation(Class<?> clazz, Class<? extends Annotation> annotationType,
+        boolean checkInherited) {
+        ClassAnnotations annotations = getClassAnnotations(clazz);
+        return (checkInherited ? annotations.hierarchyAnnotations : annotations.typeAnnotations)
+            .contains(annotationType);
+    }
+
+    /**
+     * 方法在目标类中是否有指定注解，包括父类中被重写的方法和接口方法上的注解
+     *
+     * @param targetClass 目标类，为null时使用方法的声明类
+     */
+    public boolean hasMethodAnnotation(Method method, @Nullable Class<?> targetClass,
+        Class<? extends Annotation> annotationType) {
+        ClassAnnotations annotations =
+            getClassAnnotations(targetClass != null ? targetClass : method.getDeclaringClass());
+        Set<Class<? extends Annotation>> methodAnnotations = annotations.methodAnnotations.get(method);
+        if (methodAnnotations == null) {
+            // 方法不在目标类的层次结构中（例如Object的方法），只检查方法本身
+            return collectAnnotationTypes(method.getAnnotations()).contains(annotationType);
+        }
+        return methodAnnotations.contains(annotationType);
+    }
+
+    private ClassAnnotations getClassAnnotations(Class<?> clazz) {
+        return this.index.get(clazz);
+    }
+
+    private static Set<Class<? extends Annotation>> collectAnnotationTypes(Annotation[] annotations) {
+        if (annotations.length == 0) {
+            return Collections.emptySet();
+        }
+        Set<Class<? extends Annotation>> result = new HashSet<>();
+        for (Annotation annotation : annotations) {
+            addAnnotationType(annotation.annotationType(), result);
+        }
+        return result;
+    }
+
+    private static void addAnnotationType(Class<? extends Annotation> type, Set<Class<? extends Annotation>> result) {
+        if (!result.add(type) || type.getName().startsWith("java.lang.annotation")) {
+            return;
+        }
+        for (Annotation meta : type.getDeclaredAnnotations()) {
+            addAnnotationType(meta.annotationType(), result);
+        }
+    }
+
+    /**
+     * 类本身、父类和所有接口，子类在前
+     */
+    private static Set<Class<?>> getTypeHierarchy(Class<?> clazz) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(clazz);
+        while (!queue.isEmpty()) {
+            Class<?> current = queue.poll();
+            if (current == Object.class || !hierarchy.add(current)) {
+                continue;
+            }
+            if (current.getSuperclass() != null) {
+                queue.add(current.getSuperclass());
+            }
+            queue.addAll(Arrays.asList(current.getInterfaces()));
+        }
+        return hierarchy;
+    }
+
+    private static final class ClassAnnotations {
+
+        private final Set<Class<? extends Annotation>> typeAnnotations;
+
+        private final Set<Class<? extends Annotation>> hierarchyAnnotations;
+
+        // key是层次结构中声明的每个方法，同签名的方法对应同一个合并后的集合
+        private final Map<Method, Set<Class<? extends Annotation>>> methodAnnotations;
+
+        private ClassAnnotations(Class<?> clazz) {
+            this.typeAnnotations = collectAnnotationTypes(clazz.getAnnotations());
+            Set<Class<?>> hierarchy = getTypeHierarchy(clazz);
+            Set<Class<? extends Annotation>> hierarchyAnnotations = new HashSet<>(this.typeAnnotations);
+            Map<Signature, Set<Class<? extends Annotation>>> bySignature = new HashMap<>();
+            Map<Method, Signature> signatures = new HashMap<>();
+            for (Class<?> type : hierarchy) {
+                hierarchyAnnotations.addAll(collectAnnotationTypes(type.getDeclaredAnnotations()));
+                for (Method method : type.getDeclaredMethods()) {
+                    // 私有方法不会被重写，不和其他同签名方法合并
+                    Signature signature = (Modifier.isPrivate(method.getModifiers()) ?
+                        new Signature(method, type) : new Signature(method, null));
+                    signatures.put(method, signature);
+                    bySignature.computeIfAbsent(signature, s -> new HashSet<>())
+                        .addAll(collectAnnotationTypes(method.getDeclaredAnnotations()));
+                }
+            }
+            this.hierarchyAnnotations = hierarchyAnnotations;
+            Map<Method, Set<Class<? extends Annotation>>> methodAnnotations = new HashMap<>(signatures.size() * 2);
+            for (Map.Entry<Method, Signature> entry : signatures.entrySet()) {
+                Set<Class<? extends Annotation>> types = bySignature.get(entry.getValue());
+                methodAnnotations.put(entry.getKey(), types.isEmpty() ? Collections.emptySet() : types);
+            }
+            this.methodAnnotations = methodAnnotations;
+        }
+    }
+
+    /**
+     * 方法签名：方法名和参数类型，只在建立索引时使用。私有方法的签名还包括声明类
+     */
+    private static final class Signature {
+
+        private final String name;
+
+        private final List<Class<?>> parameterTypes;
+
+        @Nullable
+        private final Class<?> privateOwner;
+
+        private Signature(Method method, @Nullable Class<?> privateOwner) {
+            this.name = method.getName();
+            this.parameterTypes = Arrays.asList(method.getParameterTypes());
+            this.privateOwner = privateOwner;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Signature)) {
+                return false;
+            }
+            Signature otherSignature = (Signature) other;
+            return this.name.equals(otherSignature.name) && this.parameterTypes.equals(otherSignature.parameterTypes) &&
+                this.privateOwner == otherSignature.privateOwner;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode() * 31 + this.parameterTypes.hashCode();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.springframework.aop.support.pointcut;
+
+import java.lang.annotation.Annotation;
+
+import org.springframework.core.common.Nullable;
+
+import cn.hutool.core.lang.Assert;
+
+/**
+ * 按类注解和（或）方法注解匹配的切点
+ */
+public class AnnotationMatchingPointcut implements Pointcut {
+
+    private final ClassFilter classFilter;
+
+    private final MethodMatcher methodMatcher;
+
+    public AnnotationMatchingPointcut(Class<? extends Annotation> classAnnotationType) {
+        this(classAnnotationType, false);
+    }
+
+    public AnnotationMatchingPointcut(Class<? extends Annotation> classAnnotationType, boolean checkInherited) {
+        this.classFilter = new AnnotationClassFilter(classAnnotationType, checkInherited);
+        this.methodMatcher = MethodMatcher.TRUE;
+    }
+
+    public AnnotationMatchingPointcut(@Nullable Class<? extends Annotation> classAnnotationType,
+        @Nullable Class<? extends Annotation> methodAnnotationType) {
+        this(classAnnotationType, methodAnnotationType, false);
+    }
+
+    /**
+     * @param classAnnotationType  类上的注解，为null时匹配所有类
+     * @param methodAnnotationType 方法上的注解，为null时匹配所有方法
+     * @param checkInherited       类注解是否同时检查父类和接口
+     */
+    public AnnotationMatchingPointcut(@Nullable Class<? extends Annotation> classAnnotationType,
+        @Nullable Class<? extends Annotation> methodAnnotationType, boolean checkInherited) {
+        Assert.isTrue(classAnnotationType != null || methodAnnotationType != null,
+            "Either Class annotation type or Method annotation type needs to be specified (or both)");
+        this.classFilter = (classAnnotationType != null ?
+            new AnnotationClassFilter(classAnnotationType, checkInherited) : ClassFilter.TRUE);
+        this.methodMatcher = (methodAnnotationType != null ?
+            new AnnotationMethodMatcher(methodAnnotationType) : MethodMatcher.TRUE);
+    }
+
+    /**
+     * 匹配类上有指定注解的所有方法
+     */
+    public static AnnotationMatchingPointcut forClassAnnotation(Class<? extends Annotation> annotationType) {
+        Assert.notNull(annotationType, "Annotation type must not be null");
+        return new AnnotationMatchingPointcut(annotationType);
+    }
+
+    /**
+     * 匹配有指定注解的方法
+     */
+    public static AnnotationMatchingPointcut forMethodAnnotation(Class<? extends Annotation> annotationType) {
+        Assert.notNull(annotationType, "Annotation type must not be null");
+        return new AnnotationMatchingPointcut(null, annotationType);
+    }
+
+    @Override
+    public ClassFilter getClassFilter() {
+        return this.classFilter;
+    }
+
+    @Override
+    public MethodMatcher getMethodMatcher() {
+        return this.methodMatcher;
+    }
+
+    @Override
+    public String toString() {
+        return "AnnotationMatchingPointcut: " + this.classFilter + ", " + this.methodMatcher;
+    }
+}
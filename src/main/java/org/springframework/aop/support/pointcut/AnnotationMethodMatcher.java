@@ -0,0 +1,30 @@
+package org.springframework.aop.support.pointcut;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import cn.hutool.core.lang.Assert;
+
+/**
+ * 按方法上的注解匹配的MethodMatcher，包括目标类中重写的方法、父类和接口中同签名方法上的注解。
+ * 查找结果来自{@link AnnotationIndex}
+ */
+public class AnnotationMethodMatcher implements MethodMatcher {
+
+    private final Class<? extends Annotation> annotationType;
+
+    public AnnotationMethodMatcher(Class<? extends Annotation> annotationType) {
+        Assert.notNull(annotationType, "Annotation type must not be null");
+        this.annotationType = annotationType;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return AnnotationIndex.getInstance().hasMethodAnnotation(method, targetClass, this.annotationType);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + ": " + this.annotationType;
+    }
+}
@@ -0,0 +1,145 @@
+package org.springframework.aop.support.pointcut;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cn.hutool.core.lang.Assert;
+
+/**
+ * ClassFilter的组合：并集、交集和取反。
+ * 并集和交集中的ClassFilter按实测的开销和短路概率排序执行（见{@link AdaptiveOrdering}）
+ */
+public abstract class ClassFilters {
+
+    private ClassFilters() {
+    }
+
+    /**
+     * 并集：任意一个匹配即匹配
+     */
+    public static ClassFilter union(ClassFilter... filters) {
+        Assert.notEmpty(filters, "ClassFilters must not be empty");
+        ClassFilter[] flattened = flatten(filters, true);
+        return (flattened.length == 1 ? flattened[0] : new UnionClassFilter(flattened));
+    }
+
+    /**
+     * 交集：全部匹配才匹配
+     */
+    public static ClassFilter intersection(ClassFilter... filters) {
+        Assert.notEmpty(filters, "ClassFilters must not be empty");
+        ClassFilter[] flattened = flatten(filters, false);
+        return (flattened.length == 1 ? flattened[0] : new IntersectionClassFilter(flattened));
+    }
+
+    /**
+     * 取反
+     */
+    public static ClassFilter negate(ClassFilter filter) {
+        Assert.notNull(filter, "ClassFilter must not be null");
+        if (filter instanceof NegateClassFilter) {
+            return ((NegateClassFilter) filter).original;
+        }
+        return new NegateClassFilter(filter);
+    }
+
+    /**
+     * 嵌套的同类组合展开成一层，便于整体排序
+     */
+    private static ClassFilter[] flatten(ClassFilter[] filters, boolean union) {
+        List<ClassFilter> result = new ArrayList<>(filters.length);
+        for (ClassFilter filter : filters) {
+            Assert.notNull(filter, "ClassFilter must not be null");
+            if (union && filter instanceof UnionClassFilter) {
+                result.addAll(Arrays.asList(((UnionClassFilter) filter).filters));
+            } else if (!union && filter instanceof IntersectionClassFilter) {
+                result.addAll(Arrays.asList(((IntersectionClassFilter) filter).filters));
+            } else {
+                result.add(filter);
+            }
+        }
+        return result.toArray(new ClassFilter[0]);
+    }
+
+    private static final class UnionClassFilter implements ClassFilter {
+
+        private final ClassFilter[] filters;
+
+        private final AdaptiveOrdering ordering;
+
+        private UnionClassFilter(ClassFilter[] filters) {
+            this.filters = filters;
+            this.ordering = new AdaptiveOrdering(filters.length);
+        }
+
+        @Override
+        public boolean matches(Class<?> clazz) {
+            for (int index : this.ordering.order()) {
+                boolean sample = this.ordering.shouldSample();
+                long start = (sample ? System.nanoTime() : 0);
+                boolean matches = this.filters[index].matches(clazz);
+                this.ordering.record(index, (sample ? System.nanoTime() - start : -1), matches);
+                if (matches) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName() + ": " + Arrays.toString(this.filters);
+        }
+    }
+
+    private static final class IntersectionClassFilter implements ClassFilter {
+
+        private final ClassFilter[] filters;
+
+        private final AdaptiveOrdering ordering;
+
+        private IntersectionClassFilter(ClassFilter[] filters) {
+            this.filters = filters;
+            this.ordering = new AdaptiveOrdering(filters.length);
+        }
+
+        @Override
+        public boolean matches(Class<?> clazz) {
+            for (int index : this.ordering.order()) {
+                boolean sample = this.ordering.shouldSample();
+                long start = (sample ? System.nanoTime() : 0);
+                boolean matches = this.filters[index].matches(clazz);
+                this.ordering.record(index, (sample ? System.nanoTime() - start : -1), !matches);
+                if (!matches) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName() + ": " + Arrays.toString(this.filters);
+        }
+    }
+
+    private static final class NegateClassFilter implements ClassFilter {
+
+        private final ClassFilter original;
+
+        private NegateClassFilter(ClassFilter original) {
+            this.original = original;
+        }
+
+        @Override
+        public boolean matches(Class<?> clazz) {
+            return !this.original.matches(clazz);
+        }
+
+        @Override
+        public String toString() {
+            return "Negated " + this.original;
+        }
+    }
+}
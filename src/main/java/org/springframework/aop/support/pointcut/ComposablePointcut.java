@@ -0,0 +1,195 @@
+package org.springframework.aop.support.pointcut;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.map.WeakConcurrentMap;
+import org.springframework.core.util.MethodCache;
+
+/**
+ * 可组合的切点：对ClassFilter和MethodMatcher做并集、交集和取反。
+ * <p>
+ * 组合后的子匹配器按实测开销和短路概率排序执行（见{@link ClassFilters}和{@link MethodMatchers}），
+ * 静态匹配结果按类、按(方法, 目标类)缓存，重复评估时不再执行子匹配器；修改组合后缓存随之失效。
+ * 动态匹配（{@link MethodMatcher#matches(Method, Class, Object...)}）依赖参数，不缓存
+ */
+public class ComposablePointcut implements Pointcut {
+
+    private ClassFilter classFilter;
+
+    private MethodMatcher methodMatcher;
+
+    private volatile MemoizedClassFilter memoizedClassFilter;
+
+    private volatile MemoizedMethodMatcher memoizedMethodMatcher;
+
+    public ComposablePointcut() {
+        this(ClassFilter.TRUE, MethodMatcher.TRUE);
+    }
+
+    public ComposablePointcut(Pointcut pointcut) {
+        this(pointcut.getClassFilter(), pointcut.getMethodMatcher());
+    }
+
+    public ComposablePointcut(ClassFilter classFilter) {
+        this(classFilter, MethodMatcher.TRUE);
+    }
+
+    public ComposablePointcut(MethodMatcher methodMatcher) {
+        this(ClassFilter.TRUE, methodMatcher);
+    }
+
+    public ComposablePointcut(ClassFilter classFilter, MethodMatcher methodMatcher) {
+        Assert.notNull(classFilter, "ClassFilter must not be null");
+        Assert.notNull(methodMatcher, "MethodMatcher must not be null");
+        this.classFilter = classFilter;
+        this.methodMatcher = methodMatcher;
+        reset();
+    }
+
+    public synchronized ComposablePointcut union(ClassFilter other) {
+        this.classFilter = ClassFilters.union(this.classFilter, other);
+        reset();
+        return this;
+    }
+
+    public synchronized ComposablePointcut intersection(ClassFilter other) {
+        this.classFilter = ClassFilters.intersection(this.classFilter, other);
+        reset();
+        return this;
+    }
+
+    public synchronized ComposablePointcut union(MethodMatcher other) {
+        this.methodMatcher = MethodMatchers.union(this.methodMatcher, other);
+        reset();
+        return this;
+    }
+
+    public synchronized ComposablePointcut intersection(MethodMatcher other) {
+        this.methodMatcher = MethodMatchers.intersection(this.methodMatcher, other);
+        reset();
+        return this;
+    }
+
+    /**
+     * 与另一个切点取并集。每个MethodMatcher只对自己的ClassFilter通过的类生效，
+     * 避免一个切点的类条件放宽另一个切点的方法条件
+     */
+    public synchronized ComposablePointcut union(Pointcut other) {
+        this.methodMatcher = MethodMatchers.union(
+            MethodMatchers.restrict(this.classFilter, this.methodMatcher),
+            MethodMatchers.restrict(other.getClassFilter(), other.getMethodMatcher()));
+        this.classFilter = ClassFilters.union(this.classFilter, other.getClassFilter());
+        reset();
+        return this;
+    }
+
+    public synchronized ComposablePointcut intersection(Pointcut other) {
+        this.classFilter = ClassFilters.intersection(this.classFilter, other.getClassFilter());
+        this.methodMatcher = MethodMatchers.intersection(this.methodMatcher, other.getMethodMatcher());
+        reset();
+        return this;
+    }
+
+    /**
+     * 取反：匹配原切点不匹配的方法。类条件合并进方法条件，ClassFilter变为匹配所有类
+     */
+    public synchronized ComposablePointcut negate() {
+        this.methodMatcher = MethodMatchers.negate(MethodMatchers.restrict(this.classFilter, this.methodMatcher));
+        this.classFilter = ClassFilter.TRUE;
+        reset();
+        return this;
+    }
+
+    @Override
+    public ClassFilter getClassFilter() {
+        return this.memoizedClassFilter;
+    }
+
+    @Override
+    public MethodMatcher getMethodMatcher() {
+        return this.memoizedMethodMatcher;
+    }
+
+    private void reset() {
+        this.memoizedClassFilter = new MemoizedClassFilter(this.classFilter);
+        this.memoizedMethodMatcher = new MemoizedMethodMatcher(this.methodMatcher);
+    }
+
+    @Override
+    public String toString() {
+        return "ComposablePointcut: " + this.classFilter + ", " + this.methodMatcher;
+    }
+
+    private static final class MemoizedClassFilter implements ClassFilter {
+
+        private final ClassFilter delegate;
+
+        private final Map<Class<?>, Boolean> results = new WeakConcurrentMap<>();
+
+        private MemoizedClassFilter(ClassFilter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean matches(Class<?> clazz) {
+            Boolean result = this.results.get(clazz);
+            if (result == null) {
+                result = this.delegate.matches(clazz);
+                this.results.put(clazz, result);
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return this.delegate.toString();
+        }
+    }
+
+    private static final class MemoizedMethodMatcher implements MethodMatcher {
+
+        private final MethodMatcher delegate;
+
+        private final boolean runtime;
+
+        // 方法 -> 目标类（弱引用） -> 匹配结果，挂在方法的声明类上，目标类可以属于其他类加载器
+        private final MethodCache<Map<Class<?>, Boolean>> results = new MethodCache<>(m -> new WeakConcurrentMap<>());
+
+        private MemoizedMethodMatcher(MethodMatcher delegate) {
+            this.delegate = delegate;
+            this.runtime = delegate.isRuntime();
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            // 缓存不支持null key，没有目标类时不缓存
+            if (targetClass == null) {
+                return this.delegate.matches(method, null);
+            }
+            Map<Class<?>, Boolean> byClass = this.results.get(method);
+            Boolean result = byClass.get(targetClass);
+            if (result == null) {
+                result = this.delegate.matches(method, targetClass);
+                byClass.put(targetClass, result);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return this.runtime;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, Object... args) {
+            return this.delegate.matches(method, targetClass, args);
+        }
+
+        @Override
+        public String toString() {
+            return this.delegate.toString();
+        }
+    }
+}
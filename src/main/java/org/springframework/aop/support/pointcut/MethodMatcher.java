@@ -5,8 +5,27 @@ import java.lang.reflect.Method;
 
 public interface MethodMatcher {
 
+	/**
+	 * 静态匹配，在构建拦截器链时执行，结果会被缓存。
+	 * {@link #isRuntime()}为true时，这里返回true只表示“可能匹配”，每次调用时还要执行{@link #matches(Method, Class, Object...)}
+	 */
 	boolean matches(Method method, Class<?> targetClass);
 
+	/**
+	 * 是否需要在每次调用时根据实际参数再做一次匹配，默认false
+	 */
+	default boolean isRuntime() {
+		return false;
+	}
+
+	/**
+	 * 动态匹配，只有{@link #isRuntime()}为true且静态匹配通过时才会在每次调用时执行。
+	 * 默认退回静态匹配，组合匹配器对静态匹配器调用时也能得到正确结果
+	 */
+	default boolean matches(Method method, Class<?> targetClass, Object... args) {
+		return matches(method, targetClass);
+	}
+
 	MethodMatcher TRUE = new MethodMatcher() {
 		@Override
 		public boolean matches(Method method, Class<?> targetClass) {
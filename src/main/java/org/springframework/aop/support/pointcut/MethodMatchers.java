@@ -0,0 +1,233 @@
+package org.springframework.aop.support.pointcut;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cn.hutool.core.lang.Assert;
+
+/**
+ * MethodMatcher的组合：并集、交集和取反，支持动态（{@link MethodMatcher#isRuntime()}）匹配。
+ * 并集和交集中的MethodMatcher按实测的开销和短路概率排序执行（见{@link AdaptiveOrdering}）
+ */
+public abstract class MethodMatchers {
+
+    private MethodMatchers() {
+    }
+
+    /**
+     * 并集：任意一个匹配即匹配
+     */
+    public static MethodMatcher union(MethodMatcher... matchers) {
+        Assert.notEmpty(matchers, "MethodMatchers must not be empty");
+        MethodMatcher[] flattened = flatten(matchers, true);
+        return (flattened.length == 1 ? flattened[0] : new UnionMethodMatcher(flattened));
+    }
+
+    /**
+     * 交集：全部匹配才匹配
+     */
+    public static MethodMatcher intersection(MethodMatcher... matchers) {
+        Assert.notEmpty(matchers, "MethodMatchers must not be empty");
+        MethodMatcher[] flattened = flatten(matchers, false);
+        return (flattened.length == 1 ? flattened[0] : new IntersectionMethodMatcher(flattened));
+    }
+
+    /**
+     * 取反。对动态MethodMatcher取反时，静态匹配无法确定，一律视为可能匹配
+     */
+    public static MethodMatcher negate(MethodMatcher matcher) {
+        Assert.notNull(matcher, "MethodMatcher must not be null");
+        if (matcher instanceof NegateMethodMatcher) {
+            return ((NegateMethodMatcher) matcher).original;
+        }
+        return new NegateMethodMatcher(matcher);
+    }
+
+    /**
+     * 只在目标类通过ClassFilter时才执行MethodMatcher，用于组合Pointcut
+     */
+    static MethodMatcher restrict(ClassFilter classFilter, MethodMatcher matcher) {
+        if (classFilter == ClassFilter.TRUE) {
+            return matcher;
+        }
+        return intersection(new ClassFilterMethodMatcher(classFilter), matcher);
+    }
+
+    private static MethodMatcher[] flatten(MethodMatcher[] matchers, boolean union) {
+        List<MethodMatcher> result = new ArrayList<>(matchers.length);
+        for (MethodMatcher matcher : matchers) {
+            Assert.notNull(matcher, "MethodMatcher must not be null");
+            if (union && matcher instanceof UnionMethodMatcher) {
+                result.addAll(Arrays.asList(((UnionMethodMatcher) matcher).matchers));
+            } else if (!union && matcher instanceof IntersectionMethodMatcher) {
+                result.addAll(Arrays.asList(((IntersectionMethodMatcher) matcher).matchers));
+            } else {
+                result.add(matcher);
+            }
+        }
+        return result.toArray(new MethodMatcher[0]);
+    }
+
+    private static boolean anyRuntime(MethodMatcher[] matchers) {
+        for (MethodMatcher matcher : matchers) {
+            if (matcher.isRuntime()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class UnionMethodMatcher implements MethodMatcher {
+
+        private final MethodMatcher[] matchers;
+
+        private final AdaptiveOrdering ordering;
+
+        private final boolean runtime;
+
+        private UnionMethodMatcher(MethodMatcher[] matchers) {
+            this.matchers = matchers;
+            this.ordering = new AdaptiveOrdering(matchers.length);
+            this.runtime = anyRuntime(matchers);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            for (int index : this.ordering.order()) {
+                boolean sample = this.ordering.shouldSample();
+                long start = (sample ? System.nanoTime() : 0);
+                boolean matches = this.matchers[index].matches(method, targetClass);
+                this.ordering.record(index, (sample ? System.nanoTime() - start : -1), matches);
+                if (matches) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return this.runtime;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, Object... args) {
+            for (int index : this.ordering.order()) {
+                MethodMatcher matcher = this.matchers[index];
+                if (matcher.matches(method, targetClass) &&
+                    (!matcher.isRuntime() || matcher.matches(method, targetClass, args))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName() + ": " + Arrays.toString(this.matchers);
+        }
+    }
+
+    private static final class IntersectionMethodMatcher implements MethodMatcher {
+
+        private final MethodMatcher[] matchers;
+
+        private final AdaptiveOrdering ordering;
+
+        private final boolean runtime;
+
+        private IntersectionMethodMatcher(MethodMatcher[] matchers) {
+            this.matchers = matchers;
+            this.ordering = new AdaptiveOrdering(matchers.length);
+            this.runtime = anyRuntime(matchers);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            for (int index : this.ordering.order()) {
+                boolean sample = this.ordering.shouldSample();
+                long start = (sample ? System.nanoTime() : 0);
+                boolean matches = this.matchers[index].matches(method, targetClass);
+                this.ordering.record(index, (sample ? System.nanoTime() - start : -1), !matches);
+                if (!matches) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return this.runtime;
+        }
+
+        /**
+         * 静态匹配已经全部通过，只需要检查动态MethodMatcher
+         */
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, Object... args) {
+            for (int index : this.ordering.order()) {
+                MethodMatcher matcher = this.matchers[index];
+                if (matcher.isRuntime() && !matcher.matches(method, targetClass, args)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName() + ": " + Arrays.toString(this.matchers);
+        }
+    }
+
+    private static final class NegateMethodMatcher implements MethodMatcher {
+
+        private final MethodMatcher original;
+
+        private NegateMethodMatcher(MethodMatcher original) {
+            this.original = original;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return this.original.isRuntime() || !this.original.matches(method, targetClass);
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return this.original.isRuntime();
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, Object... args) {
+            return !(this.original.matches(method, targetClass) && this.original.matches(method, targetClass, args));
+        }
+
+        @Override
+        public String toString() {
+            return "Negated " + this.original;
+        }
+    }
+
+    private static final class ClassFilterMethodMatcher implements MethodMatcher {
+
+        private final ClassFilter classFilter;
+
+        private ClassFilterMethodMatcher(ClassFilter classFilter) {
+            this.classFilter = classFilter;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return this.classFilter.matches(targetClass);
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName() + ": " + this.classFilter;
+        }
+    }
+}
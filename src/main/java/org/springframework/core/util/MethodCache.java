@@ -0,0 +1,53 @@
+package org.springframework.core.util;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import cn.hutool.core.lang.Assert;
+import org.springframework.core.common.Nullable;
+
+/**
+ * 按Method缓存计算结果，缓存挂在方法的声明类上（{@link ClassValue}）。
+ * <p>
+ * 缓存值可以引用Method、MethodHandle以及声明类本身：声明类不再被使用时，类、类加载器和缓存值一起被回收。
+ * 用普通Map或以Method为弱引用key的Map都做不到这一点——前者永远持有key，后者的value通过Method#getDeclaringClass强引用了key。
+ * Method按equals比较，Class#getMethods返回的副本也能命中缓存
+ */
+public final class MethodCache<V> {
+
+    private final Function<Method, ? extends V> factory;
+
+    private final ClassValue<Map<Method, V>> cache = new ClassValue<Map<Method, V>>() {
+        @Override
+        protected Map<Method, V> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(16);
+        }
+    };
+
+    public MethodCache(Function<Method, ? extends V> factory) {
+        Assert.notNull(factory, "Factory must not be null");
+        this.factory = factory;
+    }
+
+    /**
+     * 获取方法对应的值，第一次访问时计算
+     */
+    public V get(Method method) {
+        Map<Method, V> values = this.cache.get(method.getDeclaringClass());
+        V value = values.get(method);
+        if (value == null) {
+            value = values.computeIfAbsent(method, this.factory);
+        }
+        return value;
+    }
+
+    /**
+     * 获取已经计算过的值，没有时返回null，不触发计算
+     */
+    @Nullable
+    public V getIfPresent(Method method) {
+        return this.cache.get(method.getDeclaringClass()).get(method);
+    }
+}
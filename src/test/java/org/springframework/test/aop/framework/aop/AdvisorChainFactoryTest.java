@@ -0,0 +1,123 @@
+package org.springframework.test.aop.framework.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.Test;
+import org.springframework.aop.aspectj.pointcut.AspectJExpressionPointcut;
+import org.springframework.aop.framework.interceptor.adapter.registry.AdvisorAdapterRegistry;
+import org.springframework.aop.framework.interceptor.adapter.registry.DefaultAdvisorAdapterRegistry;
+import org.springframework.aop.framework.proxyfactory.ProxyFactory;
+import org.springframework.aop.support.advisor.DefaultPointcutAdvisor;
+import org.springframework.aop.support.advisor.factory.DefaultAdvisorChainFactory;
+import org.springframework.aop.support.pointcut.ClassFilter;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+import org.springframework.aop.support.pointcut.Pointcut;
+import org.springframework.test.aop.framework.aop.advice.CountingBeforeAdvice;
+import org.springframework.test.aop.framework.aop.pointcut.MyPointcut;
+import org.springframework.test.aop.framework.aop.targetsource.Drummer;
+import org.springframework.test.aop.framework.aop.targetsource.Singer;
+import org.springframework.test.aop.framework.aspectj.targetsource.sub.MathCourse;
+
+public class AdvisorChainFactoryTest {
+
+    /**
+     * 每个目标类只执行一次ClassFilter，每个方法只执行一次MethodMatcher，不匹配的Advisor不再执行MethodMatcher
+     */
+    @Test
+    public void testClassFilterIsEvaluatedOncePerTargetClass() throws Exception {
+        AtomicInteger classMatches = new AtomicInteger();
+        AtomicInteger methodMatches = new AtomicInteger();
+        Pointcut singerPointcut = new Pointcut() {
+            @Override
+            public ClassFilter getClassFilter() {
+                return clazz -> classMatches.incrementAndGet() > 0 && Singer.class.isAssignableFrom(clazz);
+            }
+
+            @Override
+            public MethodMatcher getMethodMatcher() {
+                return (method, targetClass) -> methodMatches.incrementAndGet() > 0;
+            }
+        };
+        CountingBeforeAdvice first = new CountingBeforeAdvice();
+        CountingBeforeAdvice second = new CountingBeforeAdvice();
+        CountingBeforeAdvice third = new CountingBeforeAdvice();
+        ProxyFactory config = new ProxyFactory();
+        config.addAdvisor(new DefaultPointcutAdvisor(first));
+        config.addAdvisor(new DefaultPointcutAdvisor(singerPointcut, second));
+        config.addAdvisor(new DefaultPointcutAdvisor(new MyPointcut(), third));
+
+        DefaultAdvisorChainFactory chainFactory = new DefaultAdvisorChainFactory();
+        for (Method method : Singer.class.getDeclaredMethods()) {
+            chainFactory.getInterceptorsAndDynamicInterceptionAdvice(config, method, Singer.class);
+        }
+        assertEquals(1, classMatches.get());
+        // 第一次遇到目标类时对所有方法批量匹配，之后只查匹配矩阵
+        int evaluated = methodMatches.get();
+        assertTrue(evaluated >= Singer.class.getDeclaredMethods().length);
+        for (Method method : Singer.class.getDeclaredMethods()) {
+            chainFactory.getInterceptorsAndDynamicInterceptionAdvice(config, method, Singer.class);
+        }
+        assertEquals(evaluated, methodMatches.get());
+
+        for (Method method : Drummer.class.getDeclaredMethods()) {
+            assertEquals(1, chainFactory.getInterceptorsAndDynamicInterceptionAdvice(config, method, Drummer.class)
+                .size());
+        }
+        assertEquals(2, classMatches.get());
+        assertEquals(evaluated, methodMatches.get());
+
+        assertEquals(3, chainFactory.getInterceptorsAndDynamicInterceptionAdvice(config,
+            Singer.class.getMethod("dance"), Singer.class).size());
+    }
+
+    /**
+     * 协变重写和它的桥接方法声明在同一个类中，匹配结果不能互相覆盖
+     */
+    @Test
+    public void testCovariantOverrideAndBridgeAreMatchedSeparately() throws Exception {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression("execution(String " + MathCourse.class.getName() + ".getSubject())");
+        ProxyFactory config = new ProxyFactory();
+        config.addAdvisor(new DefaultPointcutAdvisor(pointcut, new CountingBeforeAdvice()));
+
+        DefaultAdvisorChainFactory chainFactory = new DefaultAdvisorChainFactory();
+        Method bridge = null;
+        for (Method method : MathCourse.class.getDeclaredMethods()) {
+            if (method.isBridge()) {
+                bridge = method;
+            }
+        }
+        Method override = MathCourse.class.getMethod("getSubject");
+        assertTrue(bridge != null && !override.isBridge());
+        assertTrue(pointcut.matches(override, MathCourse.class));
+        assertEquals(1,
+            chainFactory.getInterceptorsAndDynamicInterceptionAdvice(config, override, MathCourse.class).size());
+        assertEquals(pointcut.matches(bridge, MathCourse.class) ? 1 : 0,
+            chainFactory.getInterceptorsAndDynamicInterceptionAdvice(config, bridge, MathCourse.class).size());
+    }
+
+    /**
+     * 同一个Advisor的适配结果被复用，替换Advice后重新适配
+     */
+    @Test
+    public void testAdaptedInterceptorsAreCachedPerAdvisor() {
+        AdvisorAdapterRegistry registry = DefaultAdvisorAdapterRegistry.getInstance();
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new CountingBeforeAdvice());
+        MethodInterceptor[] interceptors = registry.getInterceptors(advisor);
+        assertEquals(1, interceptors.length);
+        assertSame(interceptors, registry.getInterceptors(advisor));
+        assertNotSame(interceptors[0], registry.getInterceptors(new DefaultPointcutAdvisor(advisor.getAdvice()))[0]);
+
+        advisor.setAdvice(new CountingBeforeAdvice());
+        MethodInterceptor[] replaced = registry.getInterceptors(advisor);
+        assertNotSame(interceptors[0], replaced[0]);
+        assertSame(replaced, registry.getInterceptors(advisor));
+    }
+}
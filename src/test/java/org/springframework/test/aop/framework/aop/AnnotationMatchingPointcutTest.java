@@ -0,0 +1,89 @@
+package org.springframework.test.aop.framework.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+import org.springframework.aop.framework.TargetSource;
+import org.springframework.aop.framework.proxyfactory.ProxyFactory;
+import org.springframework.aop.support.advisor.DefaultPointcutAdvisor;
+import org.springframework.aop.support.pointcut.AnnotationClassFilter;
+import org.springframework.aop.support.pointcut.AnnotationMatchingPointcut;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+import org.springframework.test.aop.framework.aop.advice.CountingBeforeAdvice;
+
+public class AnnotationMatchingPointcutTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Audited {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    @Audited
+    public @interface AuditedService {
+    }
+
+    @AuditedService
+    public interface AccountService {
+
+        @Audited
+        int withdraw(int amount);
+
+        int balance();
+    }
+
+    public static class AccountServiceImpl implements AccountService {
+
+        @Override
+        public int withdraw(int amount) {
+            return amount;
+        }
+
+        @Override
+        public int balance() {
+            return 0;
+        }
+    }
+
+    /**
+     * 接口方法上的注解、接口上的注解以及元注解都能匹配实现类
+     */
+    @Test
+    public void testInheritedAndMetaAnnotations() throws Exception {
+        Method withdraw = AccountServiceImpl.class.getMethod("withdraw", int.class);
+        Method interfaceWithdraw = AccountService.class.getMethod("withdraw", int.class);
+        Method balance = AccountServiceImpl.class.getMethod("balance");
+
+        MethodMatcher methodMatcher = AnnotationMatchingPointcut.forMethodAnnotation(Audited.class).getMethodMatcher();
+        assertTrue(methodMatcher.matches(withdraw, AccountServiceImpl.class));
+        assertTrue(methodMatcher.matches(interfaceWithdraw, AccountServiceImpl.class));
+        assertFalse(methodMatcher.matches(balance, AccountServiceImpl.class));
+
+        assertFalse(new AnnotationClassFilter(AuditedService.class).matches(AccountServiceImpl.class));
+        assertTrue(new AnnotationClassFilter(AuditedService.class, true).matches(AccountServiceImpl.class));
+        assertTrue(new AnnotationClassFilter(Audited.class, true).matches(AccountServiceImpl.class));
+    }
+
+    @Test
+    public void testProxyWithAnnotationPointcut() {
+        CountingBeforeAdvice advice = new CountingBeforeAdvice();
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(
+            new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(Audited.class), advice));
+        proxyFactory.setTargetSource(new TargetSource(new AccountServiceImpl()));
+        AccountService proxy = (AccountService) proxyFactory.getProxy();
+
+        assertEquals(5, proxy.withdraw(5));
+        proxy.balance();
+        assertEquals(1, advice.getCount());
+    }
+}
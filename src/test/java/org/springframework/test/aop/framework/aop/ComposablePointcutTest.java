@@ -0,0 +1,81 @@
+package org.springframework.test.aop.framework.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.aop.support.pointcut.ClassFilter;
+import org.springframework.aop.support.pointcut.ComposablePointcut;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+import org.springframework.aop.support.pointcut.MethodMatchers;
+import org.springframework.test.aop.framework.aop.targetsource.Drummer;
+import org.springframework.test.aop.framework.aop.targetsource.Singer;
+
+public class ComposablePointcutTest {
+
+    private static final ClassFilter SINGER = Singer.class::isAssignableFrom;
+
+    private static final MethodMatcher SING = (method, targetClass) -> method.getName().equals("sing");
+
+    private static final MethodMatcher DANCE = (method, targetClass) -> method.getName().equals("dance");
+
+    @Test
+    public void testUnionIntersectionAndNegation() throws Exception {
+        Method sing = Singer.class.getMethod("sing");
+        Method dance = Singer.class.getMethod("dance");
+        Method playBasketball = Singer.class.getMethod("playBasketball");
+
+        ComposablePointcut union = new ComposablePointcut(SING).union(DANCE);
+        assertTrue(union.getMethodMatcher().matches(sing, Singer.class));
+        assertTrue(union.getMethodMatcher().matches(dance, Singer.class));
+        assertFalse(union.getMethodMatcher().matches(playBasketball, Singer.class));
+
+        ComposablePointcut intersection = new ComposablePointcut(SING).intersection(DANCE);
+        assertFalse(intersection.getMethodMatcher().matches(sing, Singer.class));
+        // 静态匹配器的动态匹配退回静态匹配
+        assertTrue(SING.matches(sing, Singer.class, new Object[0]));
+        assertFalse(SING.matches(dance, Singer.class, new Object[0]));
+
+        ComposablePointcut negated = new ComposablePointcut(SINGER, SING).negate();
+        assertTrue(negated.getClassFilter().matches(Drummer.class));
+        assertFalse(negated.getMethodMatcher().matches(sing, Singer.class));
+        assertTrue(negated.getMethodMatcher().matches(dance, Singer.class));
+        assertTrue(negated.getMethodMatcher().matches(sing, Drummer.class));
+
+        // 每个切点的方法条件只对自己的类条件生效
+        ComposablePointcut pointcuts = new ComposablePointcut(SINGER, SING)
+            .union(new ComposablePointcut(Drummer.class::isAssignableFrom, DANCE));
+        assertTrue(pointcuts.getClassFilter().matches(Drummer.class));
+        assertTrue(pointcuts.getMethodMatcher().matches(sing, Singer.class));
+        assertFalse(pointcuts.getMethodMatcher().matches(dance, Singer.class));
+    }
+
+    /**
+     * 静态匹配结果被缓存；子匹配器重新排序后结果不变
+     */
+    @Test
+    public void testMemoizedAndReorderedEvaluation() throws Exception {
+        AtomicInteger expensive = new AtomicInteger();
+        MethodMatcher slow = (method, targetClass) -> {
+            expensive.incrementAndGet();
+            return method.getName().startsWith("s");
+        };
+        ComposablePointcut pointcut = new ComposablePointcut(slow).intersection(MethodMatchers.negate(DANCE));
+        Method sing = Singer.class.getMethod("sing");
+        for (int i = 0; i < 100; i++) {
+            assertTrue(pointcut.getMethodMatcher().matches(sing, Singer.class));
+        }
+        assertEquals(1, expensive.get());
+
+        MethodMatcher uncached = MethodMatchers.intersection(slow, MethodMatchers.negate(DANCE), SING);
+        for (int i = 0; i < 10_000; i++) {
+            for (Method method : Singer.class.getMethods()) {
+                assertEquals(method.getName().equals("sing"), uncached.matches(method, Singer.class));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.springframework.test.aop.framework.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.Test;
+import org.springframework.aop.framework.InterceptorAndDynamicMethodMatcher;
+import org.springframework.aop.framework.ReflectiveMethodInvocation;
+import org.springframework.aop.framework.interceptor.AfterReturningAdviceInterceptor;
+import org.springframework.aop.framework.interceptor.FusedAdviceInterceptor;
+import org.springframework.aop.framework.interceptor.MethodBeforeAdviceInterceptor;
+import org.springframework.aop.framework.interceptor.ThrowsAdviceInterceptor;
+import org.springframework.aop.support.advice.ThrowsAdvice;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+import org.springframework.test.aop.framework.aop.targetsource.Drummer;
+
+public class FusedAdviceInterceptorTest {
+
+    /**
+     * 记录处理过的异常，可以配置成在处理时抛出新的异常
+     */
+    public static class ReplacingThrowsAdvice implements ThrowsAdvice {
+
+        private final String name;
+
+        private final List<String> events;
+
+        private final boolean replace;
+
+        public ReplacingThrowsAdvice(String name, List<String> events, boolean replace) {
+            this.name = name;
+            this.events = events;
+            this.replace = replace;
+        }
+
+        public void afterThrowing(RuntimeException ex) {
+            this.events.add(this.name + " handled " + ex.getMessage());
+            if (this.replace) {
+                throw new IllegalArgumentException(this.name);
+            }
+        }
+    }
+
+    /**
+     * 任意位置抛出异常时，合并后的拦截器与逐个嵌套执行的事件顺序、返回值和异常都一致
+     */
+    @Test
+    public void testSameSemanticsAsNestedChain() throws Throwable {
+        String[] failures = {null, "before-outer", "before-inner", "target", "after-inner", "after-outer"};
+        for (String failAt : failures) {
+            for (boolean replace : new boolean[] {false, true}) {
+                for (String methodName : new String[] {"perform", "fail"}) {
+                    List<String> nested = new ArrayList<>();
+                    String nestedOutcome = run(createChain(nested, failAt, replace), methodName);
+                    List<String> fused = new ArrayList<>();
+                    Object[] fusedChain = FusedAdviceInterceptor.fuse(createChain(fused, failAt, replace));
+                    assertEquals(1, fusedChain.length);
+                    assertTrue(fusedChain[0] instanceof FusedAdviceInterceptor);
+                    String fusedOutcome = run(fusedChain, methodName);
+
+                    String scenario = methodName + " failing at " + failAt + ", replace=" + replace;
+                    assertEquals(scenario, nestedOutcome, fusedOutcome);
+                    assertEquals(scenario, nested, fused);
+                }
+            }
+        }
+    }
+
+    /**
+     * 分阶段拦截器按循环执行（包括动态匹配的拦截器），结果与逐个递归执行一致，栈深度不随拦截器个数增长
+     */
+    @Test
+    public void testIterativeExecutionMatchesRecursiveExecution() throws Throwable {
+        String[] failures = {null, "before-outer", "before-inner", "target", "after-inner", "after-outer"};
+        for (String failAt : failures) {
+            for (boolean replace : new boolean[] {false, true}) {
+                for (String methodName : new String[] {"perform", "fail"}) {
+                    List<String> recursive = new ArrayList<>();
+                    Object[] recursiveChain = createChain(recursive, failAt, replace);
+                    for (int i = 0; i < recursiveChain.length; i++) {
+                        MethodInterceptor interceptor = (MethodInterceptor) recursiveChain[i];
+                        recursiveChain[i] = (MethodInterceptor) interceptor::invoke;
+                    }
+                    String recursiveOutcome = run(recursiveChain, methodName);
+                    List<String> iterative = new ArrayList<>();
+                    Object[] iterativeChain = withDynamicMatchers(createChain(iterative, failAt, replace));
+                    String iterativeOutcome = run(iterativeChain, methodName);
+
+                    String scenario = methodName + " failing at " + failAt + ", replace=" + replace;
+                    assertEquals(scenario, recursiveOutcome, iterativeOutcome);
+                    assertEquals(scenario, recursive, iterative);
+                }
+            }
+        }
+
+        Object[] deepChain = new Object[200];
+        int[] depth = new int[1];
+        for (int i = 0; i < deepChain.length; i++) {
+            deepChain[i] = (i == deepChain.length - 1 ?
+                new MethodBeforeAdviceInterceptor(
+                    (method, args, target) -> depth[0] = new Throwable().getStackTrace().length) :
+                new AfterReturningAdviceInterceptor((returnValue, method, args, target) -> { }));
+        }
+        assertEquals("returned drumming solo", run(withDynamicMatchers(deepChain), "perform"));
+        assertTrue("stack depth " + depth[0], depth[0] < deepChain.length);
+    }
+
+    /**
+     * 每个拦截器都包装成动态匹配的元素，并在它们之间插入不匹配的元素
+     */
+    private Object[] withDynamicMatchers(Object[] chain) {
+        MethodMatcher matchAll = new RuntimeMethodMatcher(true);
+        MethodMatcher matchNone = new RuntimeMethodMatcher(false);
+        Object[] dynamic = new Object[chain.length * 2];
+        for (int i = 0; i < chain.length; i++) {
+            dynamic[i * 2] = new InterceptorAndDynamicMethodMatcher((MethodInterceptor) chain[i], matchAll);
+            dynamic[i * 2 + 1] = new InterceptorAndDynamicMethodMatcher(invocation -> {
+                throw new AssertionError("Should not be invoked");
+            }, matchNone);
+        }
+        return dynamic;
+    }
+
+    private static class RuntimeMethodMatcher implements MethodMatcher {
+
+        private final boolean matches;
+
+        RuntimeMethodMatcher(boolean matches) {
+            this.matches = matches;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return true;
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return true;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass, Object... args) {
+            return this.matches;
+        }
+    }
+
+    private Object[] createChain(List<String> events, String failAt, boolean replace) {
+        return new MethodInterceptor[] {
+            new ThrowsAdviceInterceptor(new ReplacingThrowsAdvice("throws-outer", events, false)),
+            new MethodBeforeAdviceInterceptor((method, args, target) -> record(events, "before-outer", failAt)),
+            new AfterReturningAdviceInterceptor(
+                (returnValue, method, args, target) -> record(events, "after-outer", failAt)),
+            new ThrowsAdviceInterceptor(new ReplacingThrowsAdvice("throws-inner", events, replace)),
+            new MethodBeforeAdviceInterceptor((method, args, target) -> record(events, "before-inner", failAt)),
+            new AfterReturningAdviceInterceptor(
+                (returnValue, method, args, target) -> record(events, "after-inner", failAt))
+        };
+    }
+
+    private static void record(List<String> events, String name, String failAt) {
+        events.add(name);
+        if (name.equals(failAt)) {
+            throw new IllegalStateException(name);
+        }
+    }
+
+    private String run(Object[] chain, String methodName) {
+        Drummer target = new Drummer();
+        try {
+            Method method = (methodName.equals("perform") ?
+                Drummer.class.getMethod("perform", String.class) : Drummer.class.getMethod("fail"));
+            Object[] args = (methodName.equals("perform") ? new Object[] {"solo"} : null);
+            return "returned " + new ReflectiveMethodInvocation(null, target, method, args, Drummer.class, chain)
+                .proceed();
+        } catch (Throwable ex) {
+            return "threw " + ex.getClass().getSimpleName() + ": " + ex.getMessage();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.springframework.test.aop.framework.aop;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.advisor.factory.ReflectiveAspectJAdvisorFactory;
+import org.springframework.aop.aspectj.support.ExposeInvocationInterceptor;
+import org.springframework.aop.framework.TargetSource;
+import org.springframework.aop.framework.proxyfactory.ProxyFactory;
+import org.springframework.aop.support.advisor.Advisor;
+import org.springframework.test.aop.framework.aop.advice.CountingAfterReturningAdvice;
+import org.springframework.test.aop.framework.aop.advice.CountingBeforeAdvice;
+import org.springframework.test.aop.framework.aop.targetsource.Drummer;
+import org.springframework.test.aop.framework.aop.targetsource.Performer;
+import org.springframework.test.aop.framework.aop.targetsource.Singer;
+import org.springframework.test.aop.framework.aspectj.aspect.MyAspectInstanceFactory;
+import org.springframework.test.aop.framework.aspectj.aspect.RetryAspect;
+import org.springframework.test.aop.framework.aspectj.targetsource.Teacher;
+
+/**
+ * 分配预算测试：只包含前置/后置增强的代理方法，稳态下每次调用不应分配对象
+ */
+public class InvocationAllocationTest {
+
+    private static final int WARM_UP_CALLS = 50_000;
+
+    private static final int MEASURED_CALLS = 200_000;
+
+    // 允许少量与调用次数无关的一次性分配（比如类加载、JIT退优化）
+    private static final long BYTES_PER_CALL_BUDGET = 1;
+
+    // MethodInvocation和ProceedingJoinPoint，不包括克隆出来的MethodInvocation和userAttributes
+    private static final long AROUND_BYTES_PER_CALL_BUDGET = 160;
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        this.threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(this.threadMXBean.isThreadAllocatedMemorySupported());
+        this.threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void testFrozenJdkProxyAllocationBudget() {
+        ProxyFactory proxyFactory = createProxyFactory(new Drummer());
+        proxyFactory.setFrozen(true);
+        Performer proxy = (Performer) proxyFactory.getProxy();
+        long bytesPerCall = measure(proxy::tune);
+        assertTrue("Allocated " + bytesPerCall + " bytes per call", bytesPerCall <= BYTES_PER_CALL_BUDGET);
+    }
+
+    @Test
+    public void testJdkProxyAllocationBudget() {
+        Performer proxy = (Performer) createProxyFactory(new Drummer()).getProxy();
+        long bytesPerCall = measure(proxy::tune);
+        assertTrue("Allocated " + bytesPerCall + " bytes per call", bytesPerCall <= BYTES_PER_CALL_BUDGET);
+    }
+
+    @Test
+    public void testCglibProxyAllocationBudget() {
+        Singer proxy = (Singer) createProxyFactory(new Singer("Rod Johnson")).getProxy();
+        long bytesPerCall = measure(proxy::getName);
+        assertTrue("Allocated " + bytesPerCall + " bytes per call", bytesPerCall <= BYTES_PER_CALL_BUDGET);
+    }
+
+    /**
+     * Around通知只proceed一次时不克隆MethodInvocation，每次调用只分配MethodInvocation和ProceedingJoinPoint
+     */
+    @Test
+    public void testAroundAdviceAllocationBudget() {
+        MyAspectInstanceFactory aspectInstanceFactory = new MyAspectInstanceFactory("retryAspect", RetryAspect.class);
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(ExposeInvocationInterceptor.ADVISOR);
+        proxyFactory.addAdvisors(
+            new ReflectiveAspectJAdvisorFactory().getAdvisors(aspectInstanceFactory).toArray(new Advisor[0]));
+        proxyFactory.setTargetSource(new TargetSource(new Teacher("Rod Johnson")));
+        Teacher proxy = (Teacher) proxyFactory.getProxy();
+        long bytesPerCall = measure(proxy::getName);
+        assertTrue("Allocated " + bytesPerCall + " bytes per call", bytesPerCall <= AROUND_BYTES_PER_CALL_BUDGET);
+    }
+
+    private ProxyFactory createProxyFactory(Object target) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvice(new CountingBeforeAdvice());
+        proxyFactory.addAdvice(new CountingAfterReturningAdvice());
+        proxyFactory.setTargetSource(new TargetSource(target));
+        return proxyFactory;
+    }
+
+    private long measure(Runnable call) {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            call.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = this.threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        long after = this.threadMXBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / MEASURED_CALLS;
+    }
+}
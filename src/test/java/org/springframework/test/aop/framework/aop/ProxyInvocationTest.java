@@ -0,0 +1,324 @@
+package org.springframework.test.aop.framework.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.aop.framework.TargetSource;
+import org.springframework.aop.framework.proxyfactory.ProxyFactory;
+import org.springframework.aop.support.advisor.DefaultPointcutAdvisor;
+import org.springframework.aop.support.pointcut.ClassFilter;
+import org.springframework.aop.support.pointcut.MethodMatcher;
+import org.springframework.aop.support.pointcut.Pointcut;
+import org.springframework.core.exception.AopConfigException;
+import org.springframework.test.aop.framework.aop.advice.CountingBeforeAdvice;
+import org.springframework.test.aop.framework.aop.advice.MyMethodBeforeAdvice1;
+import org.springframework.test.aop.framework.aop.pointcut.MyPointcut;
+import org.springframework.test.aop.framework.aop.targetsource.Drummer;
+import org.springframework.test.aop.framework.aop.targetsource.Performer;
+import org.springframework.test.aop.framework.aop.targetsource.Singer;
+
+public class ProxyInvocationTest {
+
+    @Test
+    public void testJdkProxyWithoutAdvice() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetSource(new TargetSource(new Drummer()));
+        Performer proxy = (Performer) proxyFactory.getProxy();
+
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        assertEquals("drumming jazz", proxy.perform("jazz"));
+        assertEquals(6, proxy.rehearse(3));
+    }
+
+    @Test
+    public void testJdkProxyWithAdvice() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvice(new MyMethodBeforeAdvice1());
+        proxyFactory.setTargetSource(new TargetSource(new Drummer()));
+        Performer proxy = (Performer) proxyFactory.getProxy();
+
+        assertEquals("drumming rock", proxy.perform("rock"));
+        assertEquals(8, proxy.rehearse(4));
+    }
+
+    /**
+     * 目标方法抛出的异常应原样传递给调用方，而不是被包装成InvocationTargetException
+     */
+    @Test
+    public void testTargetExceptionIsNotWrapped() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetSource(new TargetSource(new Drummer()));
+        Performer proxy = (Performer) proxyFactory.getProxy();
+        try {
+            proxy.fail();
+            fail("Should have thrown IllegalStateException");
+        } catch (IllegalStateException ex) {
+            assertEquals("broken stick", ex.getMessage());
+        }
+
+        proxyFactory.addAdvice(new MyMethodBeforeAdvice1());
+        proxy = (Performer) proxyFactory.getProxy();
+        try {
+            proxy.fail();
+            fail("Should have thrown IllegalStateException");
+        } catch (IllegalStateException ex) {
+            assertEquals("broken stick", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testCglibProxyClassIsReused() {
+        CountingBeforeAdvice advice1 = new CountingBeforeAdvice();
+        ProxyFactory proxyFactory1 = new ProxyFactory();
+        proxyFactory1.addAdvice(advice1);
+        proxyFactory1.setTargetSource(new TargetSource(new Singer("Rod Johnson")));
+        Singer proxy1 = (Singer) proxyFactory1.getProxy();
+
+        CountingBeforeAdvice advice2 = new CountingBeforeAdvice();
+        ProxyFactory proxyFactory2 = new ProxyFactory();
+        proxyFactory2.addAdvice(advice2);
+        proxyFactory2.setTargetSource(new TargetSource(new Singer("Juergen Hoeller")));
+        Singer proxy2 = (Singer) proxyFactory2.getProxy();
+
+        assertSame(proxy1.getClass(), proxy2.getClass());
+        // 代理类共享，但回调（增强逻辑和目标对象）仍属于各自的代理对象
+        assertEquals("Rod Johnson", proxy1.getName());
+        assertEquals("Juergen Hoeller", proxy2.getName());
+        proxy2.dance();
+        assertEquals(1, advice1.getCount());
+        assertEquals(2, advice2.getCount());
+    }
+
+    /**
+     * 未被增强的方法直接分派到目标对象；代理创建后再添加、移除Advisor，每次变化都要生效
+     */
+    @Test
+    public void testCglibDispatchAfterAdvisorAdded() {
+        CountingBeforeAdvice danceAdvice = new CountingBeforeAdvice();
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(new MyPointcut(), danceAdvice));
+        proxyFactory.setTargetSource(new TargetSource(new Singer("Rod Johnson")));
+        Singer proxy = (Singer) proxyFactory.getProxy();
+
+        proxy.playBasketball();
+        proxy.dance();
+        assertEquals(1, danceAdvice.getCount());
+
+        CountingBeforeAdvice allAdvice = new CountingBeforeAdvice();
+        DefaultPointcutAdvisor allAdvisor = new DefaultPointcutAdvisor(allAdvice);
+        proxyFactory.addAdvisor(allAdvisor);
+        proxy.playBasketball();
+        proxy.dance();
+        proxy.dance();
+        assertEquals(3, danceAdvice.getCount());
+        assertEquals(3, allAdvice.getCount());
+
+        assertTrue(proxyFactory.removeAdvisor(allAdvisor));
+        proxy.playBasketball();
+        proxy.dance();
+        assertEquals(4, danceAdvice.getCount());
+        assertEquals(3, allAdvice.getCount());
+    }
+
+    @Test
+    public void testFrozenProxies() {
+        CountingBeforeAdvice danceAdvice = new CountingBeforeAdvice();
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(new MyPointcut(), danceAdvice));
+        proxyFactory.setTargetSource(new TargetSource(new Singer("Rod Johnson")));
+        proxyFactory.setFrozen(true);
+        Singer singer = (Singer) proxyFactory.getProxy();
+        singer.playBasketball();
+        singer.dance();
+        assertEquals("Rod Johnson", singer.getName());
+        assertEquals(1, danceAdvice.getCount());
+        try {
+            proxyFactory.addAdvice(new CountingBeforeAdvice());
+            fail("Should not be able to add advice to a frozen configuration");
+        } catch (AopConfigException ex) {
+            // expected
+        }
+
+        CountingBeforeAdvice performAdvice = new CountingBeforeAdvice();
+        proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvice(performAdvice);
+        proxyFactory.setTargetSource(new TargetSource(new Drummer()));
+        proxyFactory.setFrozen(true);
+        Performer performer = (Performer) proxyFactory.getProxy();
+        assertEquals("drumming blues", performer.perform("blues"));
+        assertEquals(2, performer.rehearse(1));
+        assertEquals(2, performAdvice.getCount());
+    }
+
+    /**
+     * 重载方法的hashCode相同，缓存不能把它们的拦截器链混在一起
+     */
+    @Test
+    public void testMethodCacheDistinguishesOverloads() throws Exception {
+        Method valueOfInt = String.class.getMethod("valueOf", int.class);
+        Method valueOfObject = String.class.getMethod("valueOf", Object.class);
+        assertEquals(valueOfInt.hashCode(), valueOfObject.hashCode());
+
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(new Pointcut() {
+            @Override
+            public ClassFilter getClassFilter() {
+                return ClassFilter.TRUE;
+            }
+
+            @Override
+            public MethodMatcher getMethodMatcher() {
+                return (method, targetClass) -> method.equals(valueOfInt);
+            }
+        }, new CountingBeforeAdvice()));
+
+        assertEquals(1, proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(valueOfInt, String.class).length);
+        assertEquals(0, proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(valueOfObject, String.class).length);
+    }
+
+    @Test
+    public void testChainsAreSharedBetweenIdenticalConfigurations() throws Exception {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new CountingBeforeAdvice());
+        Method perform = Performer.class.getMethod("perform", String.class);
+        ProxyFactory first = new ProxyFactory();
+        first.addAdvisor(advisor);
+        ProxyFactory second = new ProxyFactory();
+        second.addAdvisor(advisor);
+        Object[] chain = first.getInterceptorsAndDynamicInterceptionAdvice(perform, Drummer.class);
+        assertSame(chain, second.getInterceptorsAndDynamicInterceptionAdvice(perform, Drummer.class));
+
+        second.addAdvice(new CountingBeforeAdvice());
+        assertEquals(2, second.getInterceptorsAndDynamicInterceptionAdvice(perform, Drummer.class).length);
+        assertSame(chain, first.getInterceptorsAndDynamicInterceptionAdvice(perform, Drummer.class));
+    }
+
+    /**
+     * 增加或移除Advisor时，只有切点匹配的方法重新计算拦截器链
+     */
+    @Test
+    public void testOnlyAffectedChainsAreRecomputed() throws Exception {
+        Method dance = Singer.class.getMethod("dance");
+        Method getName = Singer.class.getMethod("getName");
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvice(new CountingBeforeAdvice());
+        proxyFactory.setTargetSource(new TargetSource(new Singer("Rod Johnson")));
+        Singer proxy = (Singer) proxyFactory.getProxy();
+        Object[] danceChain = proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(dance, Singer.class);
+        Object[] getNameChain = proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(getName, Singer.class);
+
+        CountingBeforeAdvice danceAdvice = new CountingBeforeAdvice();
+        DefaultPointcutAdvisor danceAdvisor = new DefaultPointcutAdvisor(new MyPointcut(), danceAdvice);
+        proxyFactory.addAdvisor(danceAdvisor);
+        assertSame(getNameChain, proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(getName, Singer.class));
+        assertEquals(2, proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(dance, Singer.class).length);
+        proxy.dance();
+        assertEquals(1, danceAdvice.getCount());
+
+        assertTrue(proxyFactory.removeAdvisor(danceAdvisor));
+        assertSame(getNameChain, proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(getName, Singer.class));
+        assertEquals(danceChain.length,
+            proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(dance, Singer.class).length);
+        proxy.dance();
+        assertEquals(1, danceAdvice.getCount());
+    }
+
+    /**
+     * 多个线程同时增加Advisor：变更次数不丢失，调用中的代理不会因为Advisor列表被修改而失败
+     */
+    @Test
+    public void testConcurrentAdvisorChanges() throws Exception {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetSource(new TargetSource(new Singer("Rod Johnson")));
+        Singer proxy = (Singer) proxyFactory.getProxy();
+        int threads = 4;
+        int advisorsPerThread = 50;
+        int initialCount = proxyFactory.getAdviceChangeCount();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < advisorsPerThread; j++) {
+                        proxyFactory.addAdvice(new CountingBeforeAdvice());
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < threads * advisorsPerThread; j++) {
+                    proxy.getName();
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * advisorsPerThread, proxyFactory.getAdvisors().size());
+        assertEquals(initialCount + threads * advisorsPerThread, proxyFactory.getAdviceChangeCount());
+        Method getName = Singer.class.getMethod("getName");
+        assertEquals(threads * advisorsPerThread,
+            proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(getName, Singer.class).length);
+    }
+
+    @Test
+    public void testWarmUpChains() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertWarmUpChains(null);
+            assertWarmUpChains(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertWarmUpChains(ExecutorService executor) {
+        AtomicInteger matchCount = new AtomicInteger();
+        CountingBeforeAdvice danceAdvice = new CountingBeforeAdvice();
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(new Pointcut() {
+            @Override
+            public ClassFilter getClassFilter() {
+                return ClassFilter.TRUE;
+            }
+
+            @Override
+            public MethodMatcher getMethodMatcher() {
+                return (method, targetClass) -> matchCount.incrementAndGet() > 0 && "dance".equals(method.getName());
+            }
+        }, danceAdvice));
+        proxyFactory.setTargetSource(new TargetSource(new Singer("Rod Johnson")));
+        proxyFactory.setWarmUpChains(true);
+        proxyFactory.setWarmUpExecutor(executor);
+        assertEquals(-1, proxyFactory.getWarmUpNanos());
+        Singer proxy = (Singer) proxyFactory.getProxy();
+        assertTrue(proxyFactory.getWarmUpNanos() >= 0);
+
+        // 第一次调用不再做切点匹配
+        int warmedUp = matchCount.get();
+        proxy.dance();
+        proxy.playBasketball();
+        assertEquals("Rod Johnson", proxy.getName());
+        assertEquals(warmedUp, matchCount.get());
+        assertEquals(1, danceAdvice.getCount());
+    }
+}
@@ -0,0 +1,50 @@
+package org.springframework.test.aop.framework.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.aop.framework.TargetSource;
+import org.springframework.aop.framework.proxyfactory.ProxyFactory;
+import org.springframework.test.aop.framework.aop.advice.RecordingThrowsAdvice;
+import org.springframework.test.aop.framework.aop.targetsource.Drummer;
+import org.springframework.test.aop.framework.aop.targetsource.Performer;
+
+public class ThrowsAdviceInterceptorTest {
+
+    /**
+     * 离异常类最近的处理方法优先；四参数的处理方法能拿到方法、参数和目标对象；同一Advice类的多个实例互不影响
+     */
+    @Test
+    public void testHandlerResolution() {
+        RecordingThrowsAdvice first = new RecordingThrowsAdvice();
+        RecordingThrowsAdvice second = new RecordingThrowsAdvice();
+        Performer proxy = createProxy(first);
+        Performer other = createProxy(second);
+        for (int i = 0; i < 2; i++) {
+            try {
+                proxy.fail();
+                fail("Should have thrown IllegalStateException");
+            } catch (IllegalStateException ex) {
+                assertEquals("broken stick", ex.getMessage());
+            }
+        }
+        try {
+            other.perform(null);
+        } catch (RuntimeException ex) {
+            fail("Should not have thrown " + ex);
+        }
+        assertEquals(Arrays.asList("fail on Drummer: broken stick", "fail on Drummer: broken stick"),
+            first.getHandled());
+        assertEquals(0, second.getHandled().size());
+    }
+
+    private Performer createProxy(RecordingThrowsAdvice advice) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvice(advice);
+        proxyFactory.setTargetSource(new TargetSource(new Drummer()));
+        return (Performer) proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,23 @@
+package org.springframework.test.aop.framework.aop.advice;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.aop.support.advice.AfterReturningAdvice;
+
+/**
+ * 记录调用次数的后置增强
+ */
+public class CountingAfterReturningAdvice implements AfterReturningAdvice {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public void afterReturning(Object returnValue, Method method, Object[] args, Object target) throws Throwable {
+        this.count.incrementAndGet();
+    }
+
+    public int getCount() {
+        return this.count.get();
+    }
+}
@@ -0,0 +1,23 @@
+package org.springframework.test.aop.framework.aop.advice;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.aop.support.advice.MethodBeforeAdvice;
+
+/**
+ * 记录调用次数的前置增强
+ */
+public class CountingBeforeAdvice implements MethodBeforeAdvice {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public void before(Method method, Object[] args, Object target) throws Throwable {
+        this.count.incrementAndGet();
+    }
+
+    public int getCount() {
+        return this.count.get();
+    }
+}
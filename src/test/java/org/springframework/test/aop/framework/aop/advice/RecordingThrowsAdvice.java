@@ -0,0 +1,27 @@
+package org.springframework.test.aop.framework.aop.advice;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.aop.support.advice.ThrowsAdvice;
+
+/**
+ * 记录处理过的异常的异常增强，同时声明单参数和四参数两种处理方法
+ */
+public class RecordingThrowsAdvice implements ThrowsAdvice {
+
+    private final List<String> handled = new CopyOnWriteArrayList<>();
+
+    public void afterThrowing(RuntimeException ex) {
+        this.handled.add("runtime " + ex.getMessage());
+    }
+
+    public void afterThrowing(Method method, Object[] args, Object target, IllegalStateException ex) {
+        this.handled.add(method.getName() + " on " + target.getClass().getSimpleName() + ": " + ex.getMessage());
+    }
+
+    public List<String> getHandled() {
+        return this.handled;
+    }
+}
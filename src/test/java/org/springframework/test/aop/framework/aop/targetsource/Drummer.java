@@ -0,0 +1,23 @@
+package org.springframework.test.aop.framework.aop.targetsource;
+
+public class Drummer implements Performer {
+
+    @Override
+    public String perform(String song) {
+        return "drumming " + song;
+    }
+
+    @Override
+    public int rehearse(int times) {
+        return times * 2;
+    }
+
+    @Override
+    public void fail() {
+        throw new IllegalStateException("broken stick");
+    }
+
+    @Override
+    public void tune() {
+    }
+}
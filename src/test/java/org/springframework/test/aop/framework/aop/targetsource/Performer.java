@@ -0,0 +1,12 @@
+package org.springframework.test.aop.framework.aop.targetsource;
+
+public interface Performer {
+
+    String perform(String song);
+
+    int rehearse(int times);
+
+    void fail();
+
+    void tune();
+}
@@ -1,5 +1,8 @@
 package org.springframework.test.aop.framework.aspectj;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
 import org.junit.Test;
 import org.springframework.aop.aspectj.advisor.factory.ReflectiveAspectJAdvisorFactory;
 import org.springframework.aop.aspectj.pointcut.AspectJExpressionPointcut;
@@ -7,10 +10,13 @@ import org.springframework.aop.aspectj.support.ExposeInvocationInterceptor;
 import org.springframework.aop.framework.TargetSource;
 import org.springframework.aop.framework.proxyfactory.ProxyFactory;
 import org.springframework.aop.support.advisor.Advisor;
+import org.springframework.test.aop.framework.aspectj.aspect.BindingAspect;
 import org.springframework.test.aop.framework.aspectj.aspect.MyAspect;
 import org.springframework.test.aop.framework.aspectj.aspect.MyAspectInstanceFactory;
+import org.springframework.test.aop.framework.aspectj.aspect.RetryAspect;
 import org.springframework.test.aop.framework.aspectj.targetsource.Teacher;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class AspectJAopTest {
@@ -38,4 +44,46 @@ public class AspectJAopTest {
         Teacher proxy = (Teacher)proxyFactory.getProxy();
         proxy.giveSpeech();
     }
+
+    @Test
+    public void testArgumentBinding() {
+        BindingAspect.RECORDED.clear();
+        BindingAspect.SHORT_STRINGS.clear();
+        Teacher proxy = createProxy(new MyAspectInstanceFactory("bindingAspect", BindingAspect.class));
+        for (int i = 0; i < 3; i++) {
+            proxy.teach("math" + i);
+        }
+        proxy.giveSpeech();
+
+        assertEquals(Arrays.asList("before math0", "before math1", "before math2", "giveSpeech returned English speech"),
+            BindingAspect.RECORDED);
+        // 同一个方法的JoinPoint字符串只拼接一次
+        assertEquals("execution(Teacher.teach(..))", BindingAspect.SHORT_STRINGS.get(0));
+        assertSame(BindingAspect.SHORT_STRINGS.get(0), BindingAspect.SHORT_STRINGS.get(2));
+    }
+
+    /**
+     * 第一次proceed在原调用上继续执行，再次proceed时从Around通知之后的拦截器重新执行
+     */
+    @Test
+    public void testAroundAdviceProceedsTwice() {
+        BindingAspect.RECORDED.clear();
+        // Around通知在外层，BindingAspect的AfterReturning通知在内层
+        Teacher proxy = createProxy(new MyAspectInstanceFactory("retryAspect", RetryAspect.class),
+            new MyAspectInstanceFactory("bindingAspect", BindingAspect.class));
+        assertEquals("English speech, English speech", proxy.giveSpeech());
+        assertEquals(Arrays.asList("giveSpeech returned English speech", "giveSpeech returned English speech"),
+            BindingAspect.RECORDED);
+    }
+
+    private Teacher createProxy(MyAspectInstanceFactory... aspectInstanceFactories) {
+        ReflectiveAspectJAdvisorFactory advisorFactory = new ReflectiveAspectJAdvisorFactory();
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(ExposeInvocationInterceptor.ADVISOR);
+        for (MyAspectInstanceFactory aspectInstanceFactory : aspectInstanceFactories) {
+            proxyFactory.addAdvisors(advisorFactory.getAdvisors(aspectInstanceFactory).toArray(new Advisor[0]));
+        }
+        proxyFactory.setTargetSource(new TargetSource(new Teacher("Rod Johnson")));
+        return (Teacher) proxyFactory.getProxy();
+    }
 }
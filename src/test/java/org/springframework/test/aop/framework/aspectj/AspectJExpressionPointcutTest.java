@@ -0,0 +1,215 @@
+package org.springframework.test.aop.framework.aspectj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aspectj.weaver.tools.PointcutExpression;
+import org.junit.Test;
+import org.springframework.aop.aspectj.pointcut.AspectJExpressionPointcut;
+import org.springframework.aop.aspectj.support.ExposeInvocationInterceptor;
+import org.springframework.aop.framework.TargetSource;
+import org.springframework.aop.framework.proxyfactory.ProxyFactory;
+import org.springframework.aop.support.advisor.DefaultPointcutAdvisor;
+import org.springframework.test.aop.framework.aop.advice.CountingBeforeAdvice;
+import org.springframework.test.aop.framework.aop.targetsource.Drummer;
+import org.springframework.test.aop.framework.aop.targetsource.Performer;
+import org.springframework.test.aop.framework.aop.targetsource.Singer;
+import org.springframework.test.aop.framework.aspectj.aspect.MyAspect;
+import org.springframework.test.aop.framework.aspectj.targetsource.Course;
+import org.springframework.test.aop.framework.aspectj.targetsource.Teacher;
+import org.springframework.test.aop.framework.aspectj.targetsource.sub.MathCourse;
+
+public class AspectJExpressionPointcutTest {
+
+    private static final String TEACH_EXPRESSION =
+        "execution(* org.springframework.test.aop.framework.aspectj.targetsource.Teacher.teach(..))";
+
+    // @within不在本地编译的子集内，由AspectJ匹配
+    private static final String WEAVER_EXPRESSION = TEACH_EXPRESSION + " && !@within(java.lang.Deprecated)";
+
+    @Test
+    public void testShadowMatchCache() throws Exception {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(WEAVER_EXPRESSION);
+        assertFalse(pointcut.isCompiledNatively());
+        Method teach = Teacher.class.getMethod("teach", String.class);
+        Method sayHello = Teacher.class.getMethod("sayHello");
+
+        assertTrue(pointcut.matches(teach, Teacher.class));
+        assertFalse(pointcut.matches(sayHello, Teacher.class));
+        assertEquals(2, pointcut.getShadowMatchCacheMisses());
+        assertEquals(0, pointcut.getShadowMatchCacheHits());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(pointcut.matches(teach, Teacher.class));
+        }
+        assertEquals(2, pointcut.getShadowMatchCacheMisses());
+        assertEquals(10, pointcut.getShadowMatchCacheHits());
+
+        // 反射每次返回新的Method副本，同样命中缓存
+        Method teachCopy = Teacher.class.getMethod("teach", String.class);
+        assertNotSame(teach, teachCopy);
+        assertTrue(pointcut.matches(teachCopy, Teacher.class));
+        assertEquals(2, pointcut.getShadowMatchCacheMisses());
+        assertEquals(11, pointcut.getShadowMatchCacheHits());
+    }
+
+    /**
+     * 并发的第一次调用只解析一次表达式；没有实际匹配的查找都算命中
+     */
+    @Test
+    public void testConcurrentFirstMatchParsesOnce() throws Exception {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(WEAVER_EXPRESSION);
+        Method teach = Teacher.class.getMethod("teach", String.class);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<PointcutExpression>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit((Callable<PointcutExpression>) () -> {
+                    start.await();
+                    assertTrue(pointcut.matches(teach, Teacher.class));
+                    return pointcut.getPointcutExpression();
+                }));
+            }
+            start.countDown();
+            PointcutExpression expression = futures.get(0).get();
+            for (Future<PointcutExpression> future : futures) {
+                assertSame(expression, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, pointcut.getShadowMatchCacheMisses());
+        assertEquals(threads - 1, pointcut.getShadowMatchCacheHits());
+    }
+
+    /**
+     * 本地编译的结果应与AspectJ一致
+     */
+    @Test
+    public void testNativeMatchingAgreesWithWeaver() {
+        String[] expressions = {
+            TEACH_EXPRESSION,
+            "execution(* org.springframework.test.aop.framework..*.*(..))",
+            "execution(public String org.springframework.test.aop.framework.aspectj.targetsource.Teacher.*(..))",
+            "execution(* org.springframework.test.aop.framework.aop.targetsource.Performer.*(String))",
+            "execution(* org.springframework.test.aop.framework.aop.targetsource.Performer+.*(..))",
+            "execution(* *(int)) || execution(void tune())",
+            "execution(* *(*, ..)) and not execution(* set*(..))",
+            "execution(!public * *(..))",
+            "within(org.springframework.test.aop.framework.aop.targetsource.*) && !execution(* get*(..))",
+            "@annotation(java.lang.Deprecated)",
+            // 桥接方法、协变返回类型和嵌套类型
+            "execution(* org.springframework.test.aop.framework.aspectj..*Course.*(..))",
+            "execution(* *..MathCourse.*(..))",
+            "execution(Object *(..))",
+            "execution(String org.springframework.test.aop.framework.aspectj.targetsource.Course.*(..))",
+            "execution(Object org.springframework.test.aop.framework.aspectj.targetsource.sub.MathCourse.*(..))",
+            "execution(public * *(..)) && !execution(int *(..))",
+            "within(org.springframework.test.aop.framework.aspectj.targetsource.sub.MathCourse)",
+            "within(org.springframework.test.aop.framework.aspectj.targetsource.Course+)"
+        };
+        Class<?>[] classes = {Teacher.class, Singer.class, Drummer.class, Performer.class, Course.class,
+            MathCourse.class, MathCourse.Exam.class};
+        for (String expression : expressions) {
+            AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+            pointcut.setExpression(expression);
+            assertTrue(expression, pointcut.isCompiledNatively());
+            for (Class<?> clazz : classes) {
+                for (Method method : clazz.getDeclaredMethods()) {
+                    boolean expected = pointcut.getPointcutExpression().matchesMethodExecution(method).alwaysMatches();
+                    assertEquals(expression + " -> " + method, expected, pointcut.matches(method, clazz));
+                    // 类级别的过滤只能排除确定不匹配的类型
+                    assertTrue(expression + " -> " + clazz, !expected || pointcut.matches(clazz));
+                }
+            }
+        }
+
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(TEACH_EXPRESSION);
+        assertTrue(pointcut.matches(Teacher.class));
+        assertFalse(pointcut.matches(Singer.class));
+    }
+
+    @Test
+    public void testNamedPointcutReference() throws Exception {
+        AspectJExpressionPointcut pointcut =
+            new AspectJExpressionPointcut(MyAspect.class, new String[0], new Class<?>[0]);
+        pointcut.setExpression("pointcutExpression() && !execution(* say*(..))");
+        assertTrue(pointcut.isCompiledNatively());
+        assertTrue(pointcut.matches(Teacher.class.getMethod("teach", String.class), Teacher.class));
+        assertFalse(pointcut.matches(Teacher.class.getMethod("sayHello"), Teacher.class));
+        assertFalse(pointcut.matches(Singer.class.getMethod("dance"), Singer.class));
+    }
+
+    @Test
+    public void testExpressionsAreInterned() {
+        AspectJExpressionPointcut first = new AspectJExpressionPointcut();
+        first.setExpression(TEACH_EXPRESSION);
+        AspectJExpressionPointcut second = new AspectJExpressionPointcut();
+        second.setExpression("  " + TEACH_EXPRESSION.replace("* ", "*   ") + "\n");
+        assertSame(first.getPointcutExpression(), second.getPointcutExpression());
+    }
+
+    /**
+     * target()只能在调用时确定是否匹配：静态匹配视为可能匹配，调用时再根据实际的目标对象判断
+     */
+    @Test
+    public void testDynamicTargetMatch() {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression("execution(* org.springframework.test.aop.framework.aop.targetsource.Performer.*(..))" +
+            " && target(org.springframework.test.aop.framework.aop.targetsource.Drummer)");
+        assertTrue(pointcut.isRuntime());
+        CountingBeforeAdvice advice = new CountingBeforeAdvice();
+
+        Performer drummer = (Performer) createProxy(new Drummer(), pointcut, advice);
+        assertEquals("drumming jazz", drummer.perform("jazz"));
+        assertEquals(1, advice.getCount());
+
+        Performer singer = (Performer) createProxy(new Performer() {
+            @Override
+            public String perform(String song) {
+                return "singing " + song;
+            }
+
+            @Override
+            public int rehearse(int times) {
+                return times;
+            }
+
+            @Override
+            public void fail() {
+            }
+
+            @Override
+            public void tune() {
+            }
+        }, pointcut, advice);
+        assertEquals("singing jazz", singer.perform("jazz"));
+        assertEquals(1, advice.getCount());
+    }
+
+    private static Object createProxy(Object target, AspectJExpressionPointcut pointcut,
+        CountingBeforeAdvice advice) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(ExposeInvocationInterceptor.ADVISOR);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(pointcut, advice));
+        proxyFactory.setTargetSource(new TargetSource(target));
+        return proxyFactory.getProxy();
+    }
+}
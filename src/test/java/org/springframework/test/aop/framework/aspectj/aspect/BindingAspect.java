@@ -0,0 +1,32 @@
+package org.springframework.test.aop.framework.aspectj.aspect;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+
+/**
+ * 绑定返回值和JoinPoint的Aspect，记录每次通知收到的参数
+ */
+@Aspect
+public class BindingAspect {
+
+    public static final List<String> RECORDED = new CopyOnWriteArrayList<>();
+
+    public static final List<String> SHORT_STRINGS = new CopyOnWriteArrayList<>();
+
+    @Before("execution(* org.springframework.test.aop.framework.aspectj.targetsource.Teacher.teach(..))")
+    public void beforeTeach(JoinPoint joinPoint) {
+        RECORDED.add("before " + joinPoint.getArgs()[0]);
+        SHORT_STRINGS.add(joinPoint.toShortString());
+    }
+
+    @AfterReturning(value = "execution(* org.springframework.test.aop.framework.aspectj.targetsource.Teacher" +
+        ".giveSpeech())", returning = "speech")
+    public void afterSpeech(JoinPoint joinPoint, String speech) {
+        RECORDED.add(joinPoint.getSignature().getName() + " returned " + speech);
+    }
+}
@@ -0,0 +1,23 @@
+package org.springframework.test.aop.framework.aspectj.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Around通知对giveSpeech调用两次proceed，对getName只调用一次
+ */
+@Aspect
+public class RetryAspect {
+
+    @Around("execution(* org.springframework.test.aop.framework.aspectj.targetsource.Teacher.giveSpeech())")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object first = joinPoint.proceed();
+        return first + ", " + joinPoint.proceed();
+    }
+
+    @Around("execution(* org.springframework.test.aop.framework.aspectj.targetsource.Teacher.getName())")
+    public Object once(ProceedingJoinPoint joinPoint) throws Throwable {
+        return joinPoint.proceed();
+    }
+}
@@ -0,0 +1,12 @@
+package org.springframework.test.aop.framework.aspectj.targetsource;
+
+public class Course {
+
+    public Object getSubject() {
+        return "course";
+    }
+
+    public int getHours() {
+        return 32;
+    }
+}
@@ -11,6 +11,10 @@ public class Teacher {
         this.name = name;
     }
 
+    public String getName() {
+        return name;
+    }
+
     public void sayHello() {
         System.out.println("hello, I'm " + name);
     }
@@ -0,0 +1,21 @@
+package org.springframework.test.aop.framework.aspectj.targetsource.sub;
+
+import org.springframework.test.aop.framework.aspectj.targetsource.Course;
+
+/**
+ * 协变返回类型的重写：编译器会额外生成返回Object的桥接方法
+ */
+public class MathCourse extends Course {
+
+    @Override
+    public String getSubject() {
+        return "math";
+    }
+
+    public static class Exam {
+
+        public String grade(int score) {
+            return score >= 60 ? "pass" : "fail";
+        }
+    }
+}